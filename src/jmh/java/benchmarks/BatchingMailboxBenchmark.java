@@ -0,0 +1,96 @@
+package benchmarks;
+
+import akka.Done;
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.PoisonPill;
+import akka.actor.Props;
+import libs.actor.BatchingActor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit d'un acteur qui compte {@link #MESSAGES} messages, avec la mailbox par défaut ou la {@code batching-mailbox}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchingMailboxBenchmark {
+
+    private static final int MESSAGES = 100_000;
+    private static final Object TICK = new Object();
+
+    @Param({"default", "batching"})
+    public String mailbox;
+
+    private ActorSystem system;
+
+    @Setup
+    public void setUp() {
+        system = ActorSystem.create("BatchingMailboxBenchmark");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        system.terminate();
+        system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public Object count() throws Exception {
+        final CompletableFuture<Done> done = new CompletableFuture<>();
+        final ActorRef counter = system.actorOf(mailbox.equals("batching")
+                ? Props.create(BatchingCounter.class, () -> new BatchingCounter(done)).withMailbox("batching-mailbox")
+                : Props.create(Counter.class, () -> new Counter(done)));
+        for (int i = 0; i < MESSAGES; i++) {
+            counter.tell(TICK, ActorRef.noSender());
+        }
+        final Done result = done.get(1, TimeUnit.MINUTES);
+        counter.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        return result;
+    }
+
+    public static class Counter extends AbstractActor {
+        private final CompletableFuture<Done> done;
+        private int received = 0;
+
+        Counter(CompletableFuture<Done> done) {
+            this.done = done;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder()
+                    .matchAny(msg -> {
+                        if (++received == MESSAGES) {
+                            done.complete(Done.getInstance());
+                        }
+                    })
+                    .build();
+        }
+    }
+
+    public static class BatchingCounter extends BatchingActor {
+        private final CompletableFuture<Done> done;
+        private int received = 0;
+
+        BatchingCounter(CompletableFuture<Done> done) {
+            this.done = done;
+        }
+
+        @Override
+        protected void onBatch(Batch batch) {
+            received += batch.size();
+            if (received == MESSAGES) {
+                done.complete(Done.getInstance());
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import org.openjdk.jmh.annotations.*;
+import scala.concurrent.ExecutionContextExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link #TASKS} appels bloquants de {@code blockingMillis} ms, jusqu'à {@link #CONCURRENCY} en parallèle, sur le
+ * dispatcher par défaut (fork-join), le {@code dedicated-dispatcher} (20 threads), le {@code self-tuning-dispatcher}
+ * et le {@code virtual-thread-dispatcher}. Les threads virtuels demandent un fork sur JDK 21+ :
+ * {@code -Djmh.args="BlockingDispatcher -jvm /chemin/jdk-21/bin/java"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BlockingDispatcherBenchmark {
+
+    private static final int TASKS = 2_000;
+    private static final int CONCURRENCY = 1_000;
+
+    @Param({"akka.actor.default-dispatcher", "dedicated-dispatcher", "self-tuning-dispatcher", "virtual-thread-dispatcher"})
+    public String dispatcher;
+
+    @Param({"10"})
+    public int blockingMillis;
+
+    private ActorSystem system;
+    private ActorMaterializer mat;
+    private ExecutionContextExecutor executor;
+
+    @Setup
+    public void setUp() {
+        system = ActorSystem.create("BlockingDispatcherBenchmark");
+        mat = ActorMaterializer.create(system);
+        executor = system.dispatchers().lookup(dispatcher);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        system.terminate();
+        system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public Object blockingCalls() throws Exception {
+        return Source.range(1, TASKS)
+                .mapAsyncUnordered(CONCURRENCY, i -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        Thread.sleep(blockingMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return i;
+                }, executor))
+                .runWith(Sink.ignore(), mat)
+                .toCompletableFuture().get(5, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,50 @@
+package benchmarks;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pattern de {@code code.BufferProblems} : {@code conflateWithSeed} devant un {@code zip} asynchrone.
+ * Les ticks sont remplacés par des sources infinies pour mesurer le débit du pattern et non l'horloge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BufferProblemsBenchmark {
+
+    @Param({"100000"})
+    public int elements;
+
+    private ActorSystem system;
+    private ActorMaterializer mat;
+
+    @Setup
+    public void setUp() {
+        system = ActorSystem.create("BufferProblemsBenchmark");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        system.terminate();
+        system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public Object conflateThenAsyncZip() throws Exception {
+        return Source.range(1, elements)
+                .conflateWithSeed(__ -> 1, (count, __) -> count + 1)
+                .via(Flow.<Integer>create().zip(Source.repeat("Tick()")).async())
+                .runWith(Sink.ignore(), mat)
+                .toCompletableFuture().get(1, TimeUnit.MINUTES);
+    }
+}
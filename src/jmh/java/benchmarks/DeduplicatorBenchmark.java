@@ -0,0 +1,119 @@
+package benchmarks;
+
+import akka.Done;
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.PoisonPill;
+import akka.actor.Props;
+import jug.workshops.reactive.akka.basics.BasicsPart5StateSpecAnswer;
+import libs.dedup.DedupFilter;
+import libs.dedup.Deduplicator;
+import libs.dedup.Hashing;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit de l'acteur {@code Deduplicator} en messages par seconde : {@link #MESSAGES} envois dont un sur
+ * {@code duplicateRatio} est nouveau.
+ *
+ * {@code vavr} est l'acteur de l'atelier (HashSet persistant sans limite), {@code exact} et {@code bloom}
+ * les backends bornés de {@code libs.dedup}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeduplicatorBenchmark {
+
+    private static final int MESSAGES = 100_000;
+
+    @Param({"10"})
+    public int duplicateRatio;
+
+    @Param({"vavr", "exact", "bloom"})
+    public String backend;
+
+    private ActorSystem system;
+    private String[] payloads;
+    private int distinct;
+
+    @Setup
+    public void setUp() {
+        system = ActorSystem.create("DeduplicatorBenchmark");
+        distinct = MESSAGES / duplicateRatio;
+        payloads = new String[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            payloads[i] = "MSG" + (i % distinct);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        system.terminate();
+        system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public Object deduplicate() throws Exception {
+        final CompletableFuture<Done> done = new CompletableFuture<>();
+        final ActorRef counter = system.actorOf(Counter.props(distinct, done));
+        final ActorRef deduplicator = system.actorOf(deduplicatorProps(counter));
+        for (String payload : payloads) {
+            deduplicator.tell(payload, ActorRef.noSender());
+        }
+        final Done result = done.get(1, TimeUnit.MINUTES);
+        deduplicator.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        counter.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        return result;
+    }
+
+    private Props deduplicatorProps(ActorRef next) {
+        switch (backend) {
+            case "vavr":
+                return BasicsPart5StateSpecAnswer.Deduplicator.props(next);
+            case "exact":
+                return Deduplicator.props(String.class,
+                        DedupFilter.exact(distinct, Duration.ZERO, DedupFilter.Expiry.AFTER_WRITE), next);
+            case "bloom":
+                // taux assez bas pour qu'aucun des messages distincts ne soit perdu
+                return Deduplicator.props(String.class,
+                        DedupFilter.bloom(distinct, 1e-9, 1 << 24, Hashing::hash64), next);
+            default:
+                throw new IllegalArgumentException("Unknown backend " + backend);
+        }
+    }
+
+    public static class Counter extends AbstractActor {
+
+        private final int expected;
+        private final CompletableFuture<Done> done;
+        private int received = 0;
+
+        static Props props(int expected, CompletableFuture<Done> done) {
+            return Props.create(Counter.class, () -> new Counter(expected, done));
+        }
+
+        private Counter(int expected, CompletableFuture<Done> done) {
+            this.expected = expected;
+            this.done = done;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return receiveBuilder()
+                    .match(String.class, msg -> {
+                        if (++received == expected) {
+                            done.complete(Done.getInstance());
+                        }
+                    })
+                    .build();
+        }
+    }
+}
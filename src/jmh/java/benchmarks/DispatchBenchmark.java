@@ -0,0 +1,145 @@
+package benchmarks;
+
+import akka.actor.AbstractActor;
+import akka.japi.pf.ReceiveBuilder;
+import libs.actor.Calculator;
+import libs.actor.DispatchTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.vavr.API.$;
+import static io.vavr.API.Case;
+import static io.vavr.API.Match;
+import static io.vavr.Predicates.instanceOf;
+
+/**
+ * Coût du dispatch d'un message seul, sans mailbox : {@code Match(...).of(Case(...))} de {@code CalcWithState},
+ * chaîne {@code receiveBuilder()} et {@link DispatchTable}, sur les messages à {@code Integer} de l'atelier
+ * puis sur le protocole à {@code long} de {@link Calculator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final int MESSAGES = 1024;
+
+    static final class Add {
+        final Integer v;
+
+        Add(Integer v) {
+            this.v = v;
+        }
+    }
+
+    static final class Mult {
+        final Integer v;
+
+        Mult(Integer v) {
+            this.v = v;
+        }
+    }
+
+    static final class Reset {
+    }
+
+    private Object[] messages;
+    private Object[] commands;
+    private long state;
+    private AbstractActor.Receive receive;
+    private DispatchTable table;
+    private AbstractActor.Receive commandReceive;
+    private DispatchTable commandTable;
+
+    @Setup
+    public void setUp() {
+        messages = new Object[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            switch (i % 3) {
+                case 0:
+                    messages[i] = new Add(i % 7);
+                    break;
+                case 1:
+                    messages[i] = new Mult(i % 3 + 1);
+                    break;
+                default:
+                    messages[i] = new Reset();
+            }
+        }
+        receive = ReceiveBuilder.create()
+                .match(Add.class, add -> state = state + add.v)
+                .match(Mult.class, mult -> state = state * mult.v)
+                .match(Reset.class, reset -> state = 0)
+                .build();
+        table = DispatchTable.builder()
+                .match(Add.class, add -> state = state + add.v)
+                .match(Mult.class, mult -> state = state * mult.v)
+                .match(Reset.class, reset -> state = 0)
+                .build();
+
+        commands = new Object[MESSAGES];
+        for (int i = 0; i < MESSAGES; i++) {
+            commands[i] = i % 2 == 0 ? new Calculator.Add(i % 7) : new Calculator.Mult(i % 3 + 1);
+        }
+        commandReceive = ReceiveBuilder.create()
+                .match(Calculator.Add.class, add -> state += add.value())
+                .match(Calculator.Mult.class, mult -> state *= mult.value())
+                .build();
+        commandTable = DispatchTable.builder()
+                .match(Calculator.Add.class, add -> state += add.value())
+                .match(Calculator.Mult.class, mult -> state *= mult.value())
+                .build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long vavrMatch() {
+        for (Object e : messages) {
+            Match(e).of(
+                    Case($(instanceOf(Add.class)), n -> state = state + n.v),
+                    Case($(instanceOf(Mult.class)), n -> state = state * n.v),
+                    Case($(instanceOf(Reset.class)), n -> state = 0));
+        }
+        return state;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long receiveBuilder() {
+        for (Object e : messages) {
+            receive.onMessage().apply(e);
+        }
+        return state;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long dispatchTable() throws Exception {
+        for (Object e : messages) {
+            table.dispatch(e);
+        }
+        return state;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long calculatorReceiveBuilder() {
+        for (Object e : commands) {
+            commandReceive.onMessage().apply(e);
+        }
+        return state;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long calculatorDispatchTable() throws Exception {
+        for (Object e : commands) {
+            commandTable.dispatch(e);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import libs.dedup.DedupFilter;
+import libs.dedup.ShardedDeduplicate;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit de la déduplication en flux selon le nombre de shards, avec et sans remise en ordre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ShardedDeduplicateBenchmark {
+
+    private static final int ELEMENTS = 200_000;
+
+    @Param({"1", "4"})
+    public int shards;
+
+    @Param({"true", "false"})
+    public boolean ordered;
+
+    private ActorSystem system;
+    private ActorMaterializer mat;
+    private java.util.List<String> payloads;
+
+    @Setup
+    public void setUp() {
+        system = ActorSystem.create("ShardedDeduplicateBenchmark");
+        mat = ActorMaterializer.create(system);
+        final String[] values = new String[ELEMENTS];
+        for (int i = 0; i < ELEMENTS; i++) {
+            values[i] = "MSG" + (i % (ELEMENTS / 10));
+        }
+        payloads = Arrays.asList(values);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        system.terminate();
+        system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ELEMENTS)
+    public Object deduplicate() throws Exception {
+        return Source.from(payloads)
+                .via(ShardedDeduplicate.create(shards,
+                        DedupFilter.<String>exact(ELEMENTS, Duration.ZERO, DedupFilter.Expiry.AFTER_WRITE), s -> s, ordered))
+                .runWith(Sink.ignore(), mat)
+                .toCompletableFuture().get(1, TimeUnit.MINUTES);
+    }
+}
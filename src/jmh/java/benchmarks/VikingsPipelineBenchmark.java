@@ -0,0 +1,88 @@
+package benchmarks;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
+import demo.Vikings;
+import io.vavr.collection.List;
+import libs.elastic.BulkClients;
+import libs.elastic.StubBulkServer;
+import libs.metrics.HdrMetricsRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static com.typesafe.config.ConfigFactory.load;
+
+/**
+ * Chemin complet de {@code demo.Vikings} (CSV -> JSON -> bulk) vers deux {@link StubBulkServer} locaux
+ * qui acceptent tout sans rien indexer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VikingsPipelineBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"none", "gzip"})
+    public String compression;
+
+    @Param({"same", "akka.actor.default-dispatcher"})
+    public String enrichment;
+
+    private ActorSystem system;
+    private ActorMaterializer mat;
+    private BulkClients clients;
+    private List<StubBulkServer> servers;
+    private Path csv;
+    private Path deadLetters;
+    private Path checkpoint;
+    private Config config;
+
+    @Setup
+    public void setUp() throws Exception {
+        system = ActorSystem.create("VikingsPipelineBenchmark");
+        mat = ActorMaterializer.create(system);
+        servers = List.fill(2, () -> StubBulkServer.start(StubBulkServer.Settings.acceptAll(), system.scheduler(), system.dispatcher()));
+
+        csv = Files.createTempFile("vikings-benchmark", ".csv");
+        Files.write(csv, List.of("Name;Place").appendAll(List.range(0, rows).map(i -> "Viking " + i + ";Place " + i % 13)));
+        deadLetters = Files.createTempFile("vikings-benchmark", ".ndjson");
+        checkpoint = Files.createTempDirectory("vikings-benchmark").resolve("checkpoint.json");
+
+        config = load().getConfig("vikings")
+                .withValue("servers", ConfigValueFactory.fromIterable(
+                        servers.map(StubBulkServer::address).toJavaList()))
+                .withValue("retry.dead-letter-file", ConfigValueFactory.fromAnyRef(deadLetters.toString()))
+                .withValue("checkpoint.file", ConfigValueFactory.fromAnyRef(checkpoint.toString()))
+                .withValue("http.default.compression", ConfigValueFactory.fromAnyRef(compression))
+                .withValue("enrichment.dispatcher", ConfigValueFactory.fromAnyRef(enrichment));
+        clients = BulkClients.fromConfig(List.ofAll(config.getStringList("servers")), config.getConfig("http"), mat);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        clients.close();
+        servers.forEach(StubBulkServer::close);
+        system.terminate();
+        system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(deadLetters);
+        Files.deleteIfExists(checkpoint);
+        Files.deleteIfExists(checkpoint.getParent());
+    }
+
+    @Benchmark
+    public Object csvToBulk() throws Exception {
+        return Vikings.index(csv, config, clients, system, mat, new HdrMetricsRegistry(), outcome -> { })
+                .toCompletableFuture().get(5, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,64 @@
+package benchmarks;
+
+import akka.NotUsed;
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import io.vavr.collection.List;
+import libs.stream.BoundedScan;
+import libs.stream.ZipWithN;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pattern de {@code demo.JavaDemo} : {@code Source.zipWithN} suivi d'un {@code scan} qui concatène les chaînes,
+ * comparé au zip sans allocation par élément suivi d'un scan borné.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZipWithNBenchmark {
+
+    @Param({"1000", "10000"})
+    public int elements;
+
+    /**
+     * "stock" : {@code Source.zipWithN} + {@code scan} ; "view" : {@link ZipWithN} + {@link BoundedScan#joining}.
+     */
+    @Param({"stock", "view"})
+    public String variant;
+
+    private ActorSystem system;
+    private ActorMaterializer mat;
+
+    @Setup
+    public void setUp() {
+        system = ActorSystem.create("ZipWithNBenchmark");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        system.terminate();
+        system.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public Object zipWithNThenScan() throws Exception {
+        final List<Source<String, ?>> sources = List.of(Source.repeat("Hey"), Source.repeat("Yo"));
+        final Source<String, NotUsed> scanned = variant.equals("view")
+                ? ZipWithN.<String, String>create(tuple -> tuple.mkString(" "), sources)
+                        .via(BoundedScan.joining(" - ", 200))
+                : Source.zipWithN(l -> List.ofAll(l).mkString(" "), sources.toJavaList())
+                        .scan("", (acc, elt) -> acc + " - " + elt);
+        return scanned
+                .take(elements)
+                .runWith(Sink.ignore(), mat)
+                .toCompletableFuture().get(1, TimeUnit.MINUTES);
+    }
+}
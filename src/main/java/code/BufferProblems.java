@@ -1,5 +1,6 @@
 package code;
 
+import akka.Done;
 import akka.NotUsed;
 import akka.actor.ActorSystem;
 import akka.actor.Cancellable;
@@ -7,8 +8,18 @@ import akka.event.Logging;
 import akka.event.LoggingAdapter;
 import akka.japi.Pair;
 import akka.stream.ActorMaterializer;
+import akka.stream.Attributes;
 import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
 import akka.stream.javadsl.Source;
+import libs.metrics.BufferSizing;
+import libs.metrics.HdrMetricsRegistry;
+import libs.metrics.Instrumentation;
+import libs.stream.ConflateStats;
+import libs.stream.ConflateZip;
+
+import java.util.concurrent.CompletionStage;
 
 import static java.time.Duration.ofSeconds;
 
@@ -27,6 +38,11 @@ public class BufferProblems {
 
     public static void main(String[] args) {
 
+        // Débit et attentes de part et d'autre du zip, publiés toutes les 5s au lieu de tracer chaque élément
+        final HdrMetricsRegistry metrics = new HdrMetricsRegistry();
+        final Instrumentation instrumentation = new Instrumentation(metrics, 1);
+        metrics.report(ofSeconds(5), system.scheduler(), system.dispatcher(), snapshot -> log.info("{}", snapshot));
+
         final Source<Tick, Cancellable> fastSource = Source.tick(ofSeconds(1), ofSeconds(1), new Tick());
         final Source<Tick, Cancellable> slowSource = Source.tick(ofSeconds(3), ofSeconds(3), new Tick());
 
@@ -34,11 +50,40 @@ public class BufferProblems {
 
         fastSource
                 .conflateWithSeed(__ -> 1, (count, __) -> count + 1)
-                .log("Before AsyncZip")
+                .via(instrumentation.probe("before-async-zip"))
                 .via(asyncZip)
                 .take(10)
-                .log("After AsyncZip")
+                .via(instrumentation.probe("after-async-zip"))
                 .runForeach(p -> log.debug("Received: {}", p.first()), mat);
+
+        // Même topologie, le buffer d'entrée de la frontière async remplacé par un buffer adaptatif : le zip étant
+        // plus lent que l'amont, sa capacité descend vers le minimum et il ne garde plus de comptes périmés
+        final BufferSizing sizing = BufferSizing.fromConfig(system.settings().config().getConfig("adaptive-buffer"));
+        final Flow<Integer, Pair<Integer, Tick>, NotUsed> adaptiveZip = Flow.<Integer>create()
+                .via(instrumentation.adaptiveBuffer("adaptive-zip-buffer", sizing))
+                .zip(slowSource)
+                .async();
+
+        fastSource
+                .conflateWithSeed(__ -> 1, (count, __) -> count + 1)
+                .via(instrumentation.probe("before-adaptive-zip"))
+                .via(adaptiveZip)
+                .take(10)
+                .via(instrumentation.probe("after-adaptive-zip"))
+                .runForeach(p -> log.debug("Received (adaptive-zip): {}", p.first()), mat);
+
+        // Même topologie avec ConflateZip : le comptage et l'appariement se font dans le même stage,
+        // le buffer d'entrée de la frontière async est réduit à 1 et rien de périmé n'attend dans un zip
+        final Flow<Tick, Pair<Integer, Tick>, ConflateStats> conflateZip = ConflateZip.aggregate(slowSource, __ -> 1, (count, __) -> count + 1);
+
+        final Pair<ConflateStats, CompletionStage<Done>> run = fastSource
+                .via(instrumentation.probe("before-conflate-zip"))
+                .viaMat(conflateZip.async().addAttributes(Attributes.inputBuffer(1, 1)), Keep.right())
+                .take(10)
+                .via(instrumentation.probe("after-conflate-zip"))
+                .toMat(Sink.foreach(p -> log.debug("Received (conflate-zip): {}", p.first())), Keep.both())
+                .run(mat);
+        run.second().thenRun(() -> log.info("{}", run.first()));
     }
 
 }
@@ -8,6 +8,8 @@ import akka.stream.Materializer;
 import akka.stream.javadsl.Source;
 import io.vavr.API;
 import io.vavr.collection.List;
+import libs.stream.BoundedScan;
+import libs.stream.ZipWithN;
 
 import static java.time.Duration.ZERO;
 import static java.time.Duration.ofSeconds;
@@ -23,10 +25,11 @@ public class JavaDemo {
 
         Source<String, Cancellable> yo = Source.tick(ZERO, ofSeconds(1), "Yo");
 
-        Source.zipWithN(
-                l -> List.ofAll(l).mkString(" "),
-                List.of(hey, yo).toJavaList())
-                .scan("", (acc, elt) -> acc + " - " + elt)
+        // Tuple lu à travers une vue réutilisée, historique borné aux 200 derniers caractères
+        ZipWithN.<String, String>create(
+                tuple -> tuple.mkString(" "),
+                List.of(hey, yo))
+                .via(BoundedScan.joining(" - ", 200))
                 .runForeach(API::println, materializer);
 
     }
@@ -0,0 +1,37 @@
+package demo;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import io.vavr.collection.List;
+import libs.elastic.StubBulkServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.typesafe.config.ConfigFactory.load;
+import static java.time.Duration.ofSeconds;
+
+/**
+ * Remplace les deux conteneurs de {@code docker-compose.yml} pour lancer {@link Vikings} hors ligne :
+ * des {@link StubBulkServer} sur les ports de {@code stub-bulk-server.ports}, qui comptent les documents reçus.
+ */
+public class StubBulkServers {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubBulkServers.class);
+
+    public static void main(String[] args) {
+
+        final ActorSystem system = ActorSystem.create("stub-bulk-servers");
+        final Config config = load().getConfig("stub-bulk-server");
+        final StubBulkServer.Settings settings = StubBulkServer.Settings.fromConfig(config);
+
+        final List<StubBulkServer> servers = List.ofAll(config.getIntList("ports"))
+                .map(port -> StubBulkServer.start(settings, port, system.scheduler(), system.dispatcher()));
+
+        system.scheduler().schedule(ofSeconds(10), ofSeconds(10), () -> servers.forEach(server ->
+                logger.info("{} : {} requêtes, {} documents, {} requêtes refusées, {} items en échec",
+                        server.address(), server.requests(), server.documents(), server.rejectedRequests(), server.failedItems())),
+                system.dispatcher());
+
+        system.registerOnTermination(() -> servers.forEach(StubBulkServer::close));
+    }
+}
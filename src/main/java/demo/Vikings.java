@@ -1,53 +1,65 @@
 package demo;
 
-import akka.NotUsed;
+import akka.Done;
 import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
 import akka.japi.JavaPartialFunction;
-import akka.japi.pf.PFBuilder;
+import akka.japi.Pair;
 import akka.stream.ActorMaterializer;
-import akka.stream.FlowShape;
-import akka.stream.UniformFanInShape;
-import akka.stream.UniformFanOutShape;
-import akka.stream.javadsl.Balance;
+import akka.stream.IOResult;
+import akka.stream.Materializer;
 import akka.stream.javadsl.FileIO;
 import akka.stream.javadsl.Flow;
-import akka.stream.javadsl.Framing;
-import akka.stream.javadsl.GraphDSL;
-import akka.stream.javadsl.Merge;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
 import akka.util.ByteString;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.typesafe.config.Config;
 import io.vavr.API;
 import io.vavr.collection.List;
+import io.vavr.control.Option;
+import libs.Json;
+import libs.checkpoint.Checkpoint;
+import libs.checkpoint.CheckpointFile;
+import libs.checkpoint.Watermark;
+import libs.csv.CsvFileSource;
+import libs.csv.CsvFormat;
+import libs.csv.CsvRow;
+import libs.elastic.BulkBody;
+import libs.elastic.BulkClients;
+import libs.elastic.BulkOutcome;
+import libs.elastic.BulkRetry;
+import libs.metrics.BufferSizing;
+import libs.metrics.HdrMetricsRegistry;
+import libs.metrics.Instrumentation;
+import libs.metrics.MetricsRegistry;
+import libs.stream.ConcurrencyLimit;
+import libs.stream.GroupedWeightedWithin;
+import libs.stream.LeastOutstandingRouter;
+import libs.stream.MapAsyncPartitioned;
+import libs.stream.RoutingGauges;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import play.libs.Json;
-import play.libs.ws.WSResponse;
-import play.libs.ws.ahc.AhcWSClient;
-import play.libs.ws.ahc.StandaloneAhcWSClient;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
-import static akka.stream.javadsl.FramingTruncation.ALLOW;
 import static com.typesafe.config.ConfigFactory.load;
-import static io.vavr.API.println;
 import static java.lang.ClassLoader.getSystemResource;
-import static play.libs.ws.ahc.AhcWSClientConfigFactory.forConfig;
 
 public class Vikings {
 
     private static final Logger logger = LoggerFactory.getLogger(Vikings.class);
 
-    private static ActorSystem system = ActorSystem.create("vikings-controller");
-    private static ActorMaterializer materializer = ActorMaterializer.create(system);
-
-    private static final AhcWSClient wsClient = new AhcWSClient(
-            StandaloneAhcWSClient.create(forConfig(load(), system.getClass().getClassLoader()), materializer), materializer);
-
     /**
      * Vérifier l'insertion des données avec un GET sur les 2 urls:
      * - http://localhost:9200/_search
@@ -58,76 +70,175 @@ public class Vikings {
      */
     public static void main(String[] args) throws URISyntaxException {
 
+        final ActorSystem system = ActorSystem.create("vikings-controller");
+        final ActorMaterializer materializer = ActorMaterializer.create(system);
+
         Path csvPath = Paths.get(getSystemResource("vikings.csv").toURI());
+        final Config config = load().getConfig("vikings");
+        final BulkClients clients = BulkClients.fromConfig(List.ofAll(config.getStringList("servers")), config.getConfig("http"), materializer);
+
+        final HdrMetricsRegistry metrics = new HdrMetricsRegistry();
+        final Cancellable report = metrics.report(
+                config.getDuration("metrics.report-interval"), system.scheduler(), system.dispatcher(),
+                snapshot -> logger.info("{}", snapshot));
+
+        index(csvPath, config, clients, system, materializer, metrics, API::println)
+                .whenComplete((gauges, error) -> {
+                    report.cancel();
+                    clients.close();
+                    metrics.snapshot().forEach(snapshot -> logger.info("{}", snapshot));
+                    if (error == null) {
+                        logger.info("Lecture terminée {}", gauges);
+                    } else {
+                        logger.error("Échec de l'indexation", error);
+                    }
+                    system.terminate();
+                });
+    }
 
-        Function<List<String>, ObjectNode> serializeNamePlace = namePlaceList -> {
-            ObjectMapper objectMapper = new ObjectMapper();
-            ObjectNode objectNode = objectMapper.createObjectNode();
-            objectNode.put("name", namePlaceList.head());
-            objectNode.put("place", namePlaceList.last());
+    /**
+     * Indexe le fichier CSV dans les serveurs de {@code config}.
+     * Débit, attentes et latence des étapes principales sont publiés dans {@code metrics}.
+     * Un point de reprise est enregistré dans {@code checkpoint.file} après chaque bulk acquitté, puis supprimé
+     * une fois le fichier entièrement indexé.
+     *
+     * @return complété une fois tous les bulks acquittés et les dead letters écrites
+     */
+    public static CompletionStage<RoutingGauges> index(Path csvPath,
+                                                       Config config,
+                                                       BulkClients clients,
+                                                       ActorSystem system,
+                                                       Materializer materializer,
+                                                       MetricsRegistry metrics,
+                                                       Consumer<BulkOutcome> onOutcome) {
+
+        Function<CsvRow, ObjectNode> serializeNamePlace = row -> {
+            ObjectNode objectNode = Json.newObject();
+            objectNode.put("name", row.field("Name"));
+            objectNode.put("place", row.field("Place"));
 
             return objectNode;
         };
 
-        final List<String> servers = List.of("localhost:9200", "localhost:9201");
-        println(index());
-
-        Function<List<ObjectNode>, String> getBulk = bulk ->
-            bulk.flatMap(j -> List.of(index(), j)).map(Json::stringify).mkString("", "\n", "\n");
-
-        FileIO.fromPath(csvPath)
-                .via(Framing.delimiter(ByteString.fromString("\n"), 1000, ALLOW))
-                .map(bytes -> bytes.utf8String())
-                .drop(1)
-                .map(line -> List.of(line.split(";")))
-                .collect(new PFBuilder<List<String>, ObjectNode>().match(List.class, l -> serializeNamePlace.apply(l)).build())
-                .grouped(5) // Attention ici c'est une java.util.List qui est retournée
-                .map(List::ofAll)
-                .via(loadBalancing(servers, server -> {
-                    logger.debug(server + " for flow");
-                    return  Flow.<List<ObjectNode>>create().mapAsync(1, bulk -> {
-                                final String strBulk = getBulk.apply(bulk);
-                                logger.debug(server + " -> " + strBulk);
-                                return wsClient.url(String.format("http://%s/_bulk", server))
-                                        .addHeader("Content-Type", "application/x-ndjson")
-                                        .post(strBulk);
-                    });
-                }))
-                .map(resp -> resp.asJson())
-                .runForeach(API::println, materializer)
-                .thenAccept(d -> {
-                    logger.info("Lecture terminée");
-                    system.terminate();
-                });
+        final List<String> servers = List.ofAll(config.getStringList("servers"));
+        final BulkBody bulkBody = BulkBody.index("vikings", "vikings");
+        logger.debug("Action {}", bulkBody.actionLine().utf8String());
+
+        final Instrumentation instrumentation = Instrumentation.fromConfig(metrics, config.getConfig("metrics"));
+        final BulkRetry retry = BulkRetry.fromConfig(config.getConfig("retry"), system.scheduler(), system.dispatcher());
+
+        // Reprise après un arrêt : on repart de la position de la dernière ligne acquittée avec toutes celles
+        // qui la précèdent. Les lignes acquittées au-delà sont renvoyées (au moins une fois)
+        final String source = csvPath.toAbsolutePath().toString();
+        final CheckpointFile checkpoints = new CheckpointFile(Paths.get(config.getString("checkpoint.file")));
+        final Option<Checkpoint> resumeFrom = checkpoints.load(source);
+        resumeFrom.forEach(checkpoint -> logger.info("Reprise de {}", checkpoint));
+        final long firstRow = resumeFrom.map(checkpoint -> checkpoint.row() + 1).getOrElse(0L);
+        final Watermark watermark = new Watermark(firstRow, resumeFrom.map(Checkpoint::offset).getOrElse(0L));
+
+        // Lectures du CSV et écritures du point de reprise : appels bloquants, hors du dispatcher du stream
+        final Executor blockingIo = system.dispatchers().lookup(config.getString("csv.dispatcher"));
+
+        // "same" : conversion sur le thread du stage, quand elle coûte moins que le passage d'un thread à l'autre
+        final String enrichmentDispatcher = config.getString("enrichment.dispatcher");
+        final Executor enrichment = enrichmentDispatcher.equals("same")
+                ? Runnable::run
+                : system.dispatchers().lookup(enrichmentDispatcher);
+
+        final Flow<Bulk, Pair<Bulk, BulkOutcome>, RoutingGauges> bulkSender = LeastOutstandingRouter.create(
+                servers,
+                ConcurrencyLimit.fromConfig(config.getConfig("routing.concurrency")),
+                config.getDouble("routing.ewma-alpha"),
+                // un bulk qui a dû être rejoué signale un serveur saturé
+                acked -> acked.second().retries() > 0,
+                (server, bulk) -> retry.send(bulk.documents.map(document -> document.entry), body -> {
+                    logger.debug("{} -> {} bytes", server, body.size());
+                    return clients.post(server, body);
+                }).thenApply(outcome -> Pair.create(bulk, outcome)));
+
+        // Les documents abandonnés (refus définitif ou budget de rejeu épuisé) sont conservés au format NDJSON,
+        // à la suite du fichier existant en cas de reprise
+        final Sink<BulkOutcome, CompletionStage<IOResult>> deadLetters = Flow.<BulkOutcome>create()
+                .mapConcat(outcome -> outcome.rejected().map(BulkOutcome.Rejected::entry).toJavaList())
+                .toMat(FileIO.toPath(Paths.get(config.getString("retry.dead-letter-file")), resumeFrom.isDefined()
+                        ? EnumSet.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                        : EnumSet.of(StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)),
+                        Keep.right());
+
+        final Pair<Pair<RoutingGauges, CompletionStage<IOResult>>, CompletionStage<Done>> run = CsvFileSource.rows(
+                        csvPath,
+                        CsvFormat.DEFAULT.withSeparator(';').withHeader(),
+                        (int) config.getBytes("csv.chunk-size").longValue(),
+                        config.getInt("csv.parallelism"),
+                        true,
+                        blockingIo,
+                        watermark.offset())
+                .via(instrumentation.probe("csv-rows"))
+                .zipWithIndex()
+                // Une entrée NDJSON par document, pour que la taille des bulks se règle en octets.
+                // Ordre conservé par lieu seulement : une ligne lente ne retient que celles du même lieu
+                .via(MapAsyncPartitioned.create(
+                        config.getInt("enrichment.parallelism"),
+                        indexed -> indexed.first().field("Place"),
+                        indexed -> CompletableFuture.supplyAsync(() -> new Document(
+                                firstRow + indexed.second(),
+                                indexed.first().end(),
+                                bulkBody.entry(serializeNamePlace.apply(indexed.first()))), enrichment)))
+                .via(GroupedWeightedWithin.fromConfig(config.getConfig("bulk"), document -> document.entry.size()))
+                .map(Bulk::new)
+                .via(instrumentation.probe("bulks"))
+                // Sérialisation et envoi sur des acteurs distincts, avec un nombre de bulks en attente réglé à l'exécution
+                .async()
+                .via(instrumentation.adaptiveBuffer("bulk-buffer", BufferSizing.fromConfig(config.getConfig("bulk-buffer"))))
+                .viaMat(instrumentation.timed("bulk-sender", bulkSender), Keep.right())
+                // Point de reprise écrit sur blockingIo (fsync), un à la fois et dans l'ordre des acquittements
+                .mapAsync(1, acked -> {
+                    // Les lignes d'un bulk ne se suivent plus forcément : la position avance ligne par ligne
+                    boolean advanced = false;
+                    for (Document document : acked.first().documents) {
+                        advanced |= watermark.acknowledge(document.row, document.end);
+                    }
+                    if (!advanced) {
+                        return CompletableFuture.completedFuture(acked.second());
+                    }
+                    final Checkpoint checkpoint = new Checkpoint(source, watermark.offset(), watermark.last());
+                    return CompletableFuture.supplyAsync(() -> {
+                        checkpoints.save(checkpoint);
+                        return acked.second();
+                    }, blockingIo);
+                })
+                .alsoToMat(deadLetters, Keep.both())
+                .toMat(Sink.foreach(onOutcome::accept), Keep.both())
+                .run(materializer);
+
+        return run.second().thenCombine(run.first().second(), (done, io) -> {
+            logger.info("{} octets en dead letter", io.getCount());
+            // Fichier entièrement indexé : la prochaine exécution repart du début
+            checkpoints.delete();
+            return run.first().first();
+        });
     }
 
-    private static ObjectNode index() {
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode objectNode = objectMapper.createObjectNode();
-        objectNode.put("_index","vikings");
-        objectNode.put("_type", "vikings");
-        ObjectNode objectRoot = objectMapper.createObjectNode();
-        objectRoot.set("index", objectNode);
-
-        return objectRoot;
+    /**
+     * Entrée NDJSON d'une ligne, avec son numéro dans le fichier et la position juste après elle.
+     */
+    private static final class Document {
+        private final long row;
+        private final long end;
+        private final ByteString entry;
+
+        private Document(long row, long end, ByteString entry) {
+            this.row = row;
+            this.end = end;
+            this.entry = entry;
+        }
     }
 
-    private static <In, Out> Flow<In, Out, NotUsed> loadBalancing(List<String> servers, Function<String, Flow<In, Out, NotUsed>> flow) {
-        return Flow.fromGraph(
-                GraphDSL.create(
-                        b -> {
-                            final int paralellism = servers.size();
-                            final UniformFanInShape<Out, Out> merge = b.add(Merge.create(paralellism));
-                            final UniformFanOutShape<In, In> balance = b.add(Balance.create(paralellism));
-
-                            servers.zipWithIndex().forEach(t -> {
-                                logger.info("Server {} {}", t._1, t._2);
-                                b.from(balance.out(t._2))
-                                        .via(b.add(flow.apply(t._1).async()))
-                                        .toInlet(merge.in(t._2));
-                            });
-
-                            return FlowShape.of(balance.in(), merge.out());
-                        }));
+    private static final class Bulk {
+        private final List<Document> documents;
+
+        private Bulk(List<Document> documents) {
+            this.documents = documents;
+        }
     }
 }
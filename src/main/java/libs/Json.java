@@ -1,16 +1,42 @@
 package libs;
 
+import akka.util.ByteString;
+import akka.util.ByteStringBuilder;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import io.vavr.jackson.datatype.VavrModule;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Point d'entrée unique pour la sérialisation JSON.
+ *
+ * L'{@link ObjectMapper} est construit une seule fois ; les {@link ObjectReader} / {@link ObjectWriter}
+ * sont immuables et thread-safe, on les garde donc en cache par type.
+ */
 public class Json {
 
-    public static ObjectMapper defaultObjectMapper = newDefaultMapper();
+    public static final ObjectMapper defaultObjectMapper = newDefaultMapper();
+
+    private static final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
 
     private static ObjectMapper newDefaultMapper() {
 
@@ -22,4 +48,80 @@ public class Json {
         mapper.setSerializationInclusion(JsonInclude.Include.NON_ABSENT);
         return mapper;
     }
+
+    public static ObjectReader reader(Class<?> type) {
+        return readers.computeIfAbsent(type, defaultObjectMapper::readerFor);
+    }
+
+    public static ObjectWriter writer(Class<?> type) {
+        return writers.computeIfAbsent(type, defaultObjectMapper::writerFor);
+    }
+
+    public static JsonNodeFactory nodeFactory() {
+        return defaultObjectMapper.getNodeFactory();
+    }
+
+    public static ObjectNode newObject() {
+        return nodeFactory().objectNode();
+    }
+
+    public static ArrayNode newArray() {
+        return nodeFactory().arrayNode();
+    }
+
+    public static <T> T fromJson(String json, Class<T> type) {
+        try {
+            return reader(type).readValue(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static <T> T fromJson(JsonNode json, Class<T> type) {
+        try {
+            return reader(type).readValue(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static JsonNode parse(ByteString json) {
+        try {
+            return reader(JsonNode.class).readTree(json.iterator().asInputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static String stringify(Object value) {
+        try {
+            return writer(value.getClass()).writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sérialise directement en octets UTF-8, sans {@code String} intermédiaire.
+     */
+    public static ByteString toByteString(Object value) {
+        final ByteStringBuilder builder = ByteString.createBuilder();
+        try (JsonGenerator generator = generator(builder.asOutputStream())) {
+            writer(value.getClass()).writeValue(generator, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.result();
+    }
+
+    /**
+     * Générateur en streaming sur le mapper partagé, à fermer par l'appelant.
+     */
+    public static JsonGenerator generator(OutputStream out) {
+        try {
+            return defaultObjectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
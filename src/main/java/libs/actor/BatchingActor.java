@@ -0,0 +1,90 @@
+package libs.actor;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Acteur qui traite ses messages par lots, à associer à une {@link BatchingMailbox}. Avec une autre mailbox,
+ * chaque message arrive comme un lot d'un seul élément.
+ *
+ * Dans {@link #onBatch}, {@code sender()} est l'émetteur du premier message : répondre avec
+ * l'émetteur de chaque élément, fourni par {@link Batch#forEach}.
+ */
+public abstract class BatchingActor extends AbstractActor {
+
+    @FunctionalInterface
+    public interface Handler {
+        void handle(Object message, ActorRef sender) throws Exception;
+    }
+
+    protected abstract void onBatch(Batch batch) throws Exception;
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(Batch.class, this::onBatch)
+                .matchAny(message -> onBatch(new Batch(message, sender())))
+                .build();
+    }
+
+    /**
+     * Messages consécutifs de la mailbox et leurs émetteurs, dans l'ordre d'arrivée.
+     */
+    public static final class Batch {
+        private static final int INITIAL_CAPACITY = 8;
+
+        private Object[] messages = new Object[INITIAL_CAPACITY];
+        private ActorRef[] senders = new ActorRef[INITIAL_CAPACITY];
+        private int size = 0;
+
+        Batch(Object message, ActorRef sender) {
+            add(message, sender);
+        }
+
+        void add(Object message, ActorRef sender) {
+            if (size == messages.length) {
+                messages = Arrays.copyOf(messages, size * 2);
+                senders = Arrays.copyOf(senders, size * 2);
+            }
+            messages[size] = message;
+            senders[size] = sender;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public Object message(int index) {
+            return messages[index];
+        }
+
+        public ActorRef sender(int index) {
+            return senders[index];
+        }
+
+        /**
+         * Parcourt les messages ; un message {@link List} est déplié sur place, élément par élément avec le même
+         * émetteur, au lieu d'être renvoyé dans la mailbox.
+         */
+        public void forEach(Handler handler) throws Exception {
+            for (int i = 0; i < size; i++) {
+                if (messages[i] instanceof List) {
+                    for (Object element : (List<?>) messages[i]) {
+                        handler.handle(element, senders[i]);
+                    }
+                } else {
+                    handler.handle(messages[i], senders[i]);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Batch(" + size + ")";
+        }
+    }
+}
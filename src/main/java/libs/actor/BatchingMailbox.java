@@ -0,0 +1,102 @@
+package libs.actor;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.AutoReceivedMessage;
+import akka.dispatch.Envelope;
+import akka.dispatch.MailboxType;
+import akka.dispatch.MessageQueue;
+import akka.dispatch.ProducesMessageQueue;
+import akka.dispatch.UnboundedMessageQueueSemantics;
+import com.typesafe.config.Config;
+import scala.Option;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Mailbox non bornée qui regroupe à chaque retrait jusqu'à {@code max-batch} messages consécutifs dans un seul
+ * {@link BatchingActor.Batch} : l'acteur est invoqué une fois par lot au lieu d'une fois par message.
+ *
+ * Les messages gérés par Akka lui-même ({@code PoisonPill}, {@code Kill}, {@code Identify}, {@code Terminated}...)
+ * ne sont jamais regroupés. À utiliser uniquement avec un {@link BatchingActor}, par exemple :
+ * <pre>
+ * batching-mailbox {
+ *   mailbox-type = "libs.actor.BatchingMailbox"
+ *   max-batch = 64
+ * }
+ * </pre>
+ */
+public final class BatchingMailbox implements MailboxType, ProducesMessageQueue<BatchingMailbox.BatchingMessageQueue> {
+
+    private final int maxBatch;
+
+    public BatchingMailbox(ActorSystem.Settings settings, Config config) {
+        this(config.getInt("max-batch"));
+    }
+
+    public BatchingMailbox(int maxBatch) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("max-batch must be >= 1, was " + maxBatch);
+        }
+        this.maxBatch = maxBatch;
+    }
+
+    @Override
+    public MessageQueue create(Option<ActorRef> owner, Option<ActorSystem> system) {
+        return new BatchingMessageQueue(maxBatch);
+    }
+
+    public static final class BatchingMessageQueue implements MessageQueue, UnboundedMessageQueueSemantics {
+
+        private final Queue<Envelope> queue = new ConcurrentLinkedQueue<>();
+        private final int maxBatch;
+
+        private BatchingMessageQueue(int maxBatch) {
+            this.maxBatch = maxBatch;
+        }
+
+        @Override
+        public void enqueue(ActorRef receiver, Envelope handle) {
+            queue.offer(handle);
+        }
+
+        /**
+         * Appelé uniquement par l'acteur propriétaire : un seul consommateur, {@code peek} puis {@code poll} est sûr.
+         */
+        @Override
+        public Envelope dequeue() {
+            final Envelope first = queue.poll();
+            if (first == null || !batchable(first)) {
+                return first;
+            }
+            final BatchingActor.Batch batch = new BatchingActor.Batch(first.message(), first.sender());
+            for (Envelope next = queue.peek(); next != null && batchable(next) && batch.size() < maxBatch; next = queue.peek()) {
+                queue.poll();
+                batch.add(next.message(), next.sender());
+            }
+            return Envelope.apply(batch, first.sender());
+        }
+
+        @Override
+        public int numberOfMessages() {
+            return queue.size();
+        }
+
+        @Override
+        public boolean hasMessages() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public void cleanUp(ActorRef owner, MessageQueue deadLetters) {
+            for (Envelope envelope = queue.poll(); envelope != null; envelope = queue.poll()) {
+                deadLetters.enqueue(owner, envelope);
+            }
+        }
+
+        private static boolean batchable(Envelope envelope) {
+            return !(envelope.message() instanceof AutoReceivedMessage);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package libs.actor;
+
+import akka.actor.AbstractActor;
+import akka.actor.Props;
+
+/**
+ * Calculatrice à état de l'atelier ({@code CalcWithState}) sur un protocole typé : les commandes forment une
+ * hiérarchie fermée (constructeur privé, seules les classes imbriquées peuvent l'étendre), portent des
+ * {@code long} et sont distribuées par une {@link DispatchTable}.
+ */
+public final class Calculator extends AbstractActor {
+
+    private long state = 0;
+
+    private final DispatchTable dispatch = DispatchTable.builder()
+            .match(Add.class, add -> state += add.value)
+            .match(Mult.class, mult -> state *= mult.value)
+            .match(GetState.class, get -> sender().tell(new State(state), self()))
+            .build();
+
+    public static Props props() {
+        return Props.create(Calculator.class, Calculator::new);
+    }
+
+    private Calculator() {
+    }
+
+    @Override
+    public Receive createReceive() {
+        return dispatch.toReceive();
+    }
+
+    public abstract static class Command {
+        private Command() {
+        }
+    }
+
+    public static final class Add extends Command {
+        private final long value;
+
+        public Add(long value) {
+            this.value = value;
+        }
+
+        public long value() {
+            return value;
+        }
+    }
+
+    public static final class Mult extends Command {
+        private final long value;
+
+        public Mult(long value) {
+            this.value = value;
+        }
+
+        public long value() {
+            return value;
+        }
+    }
+
+    public static final class GetState extends Command {
+        public static final GetState INSTANCE = new GetState();
+
+        private GetState() {
+        }
+    }
+
+    public static final class State {
+        private final long value;
+
+        public State(long value) {
+            this.value = value;
+        }
+
+        public long value() {
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof State && ((State) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return "State(" + value + ")";
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package libs.actor;
+
+import akka.actor.AbstractActor;
+import akka.japi.JavaPartialFunction;
+import akka.japi.pf.FI;
+import io.vavr.collection.List;
+import scala.runtime.BoxedUnit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Table de dispatch précompilée : classe du message -> handler.
+ *
+ * Même sémantique qu'une chaîne {@code receiveBuilder().match(...)} (le premier type déclaré qui correspond
+ * l'emporte), mais la résolution est faite une seule fois par classe concrète puis mise en cache dans un
+ * {@link ClassValue} : plus de parcours linéaire ni d'objet alloué par message, contrairement à
+ * {@code Match(...).of(Case(...))}.
+ *
+ * La résolution classe -> position du handler ne dépend que de la liste des types déclarés : elle est partagée
+ * par toutes les tables qui déclarent les mêmes types dans le même ordre (typiquement toutes les instances
+ * d'une classe d'acteur). Chaque table ne garde que son tableau de handlers.
+ */
+public final class DispatchTable {
+
+    private static final int NO_HANDLER = -1;
+
+    // Une entrée par liste de types : autant que de classes d'acteur, jamais par instance
+    private static final ConcurrentMap<List<Class<?>>, Layout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final Layout layout;
+    private final FI.UnitApply<Object>[] handlers;
+
+    private DispatchTable(Layout layout, FI.UnitApply<Object>[] handlers) {
+        this.layout = layout;
+        this.handlers = handlers;
+    }
+
+    public static Builder builder() {
+        return new Builder(List.empty());
+    }
+
+    public boolean handles(Class<?> type) {
+        return layout.indexOf(type) != NO_HANDLER;
+    }
+
+    /**
+     * @return faux si aucun handler ne correspond au message
+     */
+    public boolean dispatch(Object message) throws Exception {
+        final int index = layout.indexOf(message.getClass());
+        if (index == NO_HANDLER) {
+            return false;
+        }
+        handlers[index].apply(message);
+        return true;
+    }
+
+    /**
+     * Comportement d'acteur équivalent : les messages sans handler partent dans {@code unhandled}, comme avec
+     * {@code receiveBuilder()}.
+     */
+    public AbstractActor.Receive toReceive() {
+        return new AbstractActor.Receive(new JavaPartialFunction<Object, BoxedUnit>() {
+            @Override
+            public BoxedUnit apply(Object message, boolean isCheck) throws Exception {
+                final int index = layout.indexOf(message.getClass());
+                if (index == NO_HANDLER) {
+                    throw noMatch();
+                }
+                if (!isCheck) {
+                    handlers[index].apply(message);
+                }
+                return BoxedUnit.UNIT;
+            }
+        });
+    }
+
+    public static final class Builder {
+        private final List<Entry> entries;
+
+        private Builder(List<Entry> entries) {
+            this.entries = entries;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> Builder match(Class<T> type, FI.UnitApply<? super T> handler) {
+            return new Builder(entries.append(new Entry(type, (FI.UnitApply<Object>) handler)));
+        }
+
+        public DispatchTable build() {
+            final Layout layout = LAYOUTS.computeIfAbsent(entries.map(entry -> entry.type), Layout::new);
+            @SuppressWarnings("unchecked")
+            final FI.UnitApply<Object>[] handlers = (FI.UnitApply<Object>[]) new FI.UnitApply<?>[entries.size()];
+            entries.zipWithIndex().forEach(entry -> handlers[entry._2] = entry._1.handler);
+            return new DispatchTable(layout, handlers);
+        }
+    }
+
+    /**
+     * Position du premier type déclaré qui correspond à chaque classe concrète, calculée au premier message.
+     */
+    private static final class Layout {
+        private final ClassValue<Integer> resolved;
+
+        private Layout(List<Class<?>> types) {
+            this.resolved = new ClassValue<Integer>() {
+                @Override
+                protected Integer computeValue(Class<?> type) {
+                    return types.indexWhere(declared -> declared.isAssignableFrom(type));
+                }
+            };
+        }
+
+        private int indexOf(Class<?> type) {
+            return resolved.get(type);
+        }
+    }
+
+    private static final class Entry {
+        private final Class<?> type;
+        private final FI.UnitApply<Object> handler;
+
+        private Entry(Class<?> type, FI.UnitApply<Object> handler) {
+            this.type = type;
+            this.handler = handler;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package libs.aggregate;
+
+/**
+ * Copie immuable de {@link KeyedAggregates}, dans l'ordre interne (non trié).
+ */
+public final class AggregatesSnapshot {
+
+    private final Aggregation aggregation;
+    private final long[] keys;
+    private final long[] counts;
+    private final double[] values;
+
+    AggregatesSnapshot(Aggregation aggregation, long[] keys, long[] counts, double[] values) {
+        this.aggregation = aggregation;
+        this.keys = keys;
+        this.counts = counts;
+        this.values = values;
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, long count, double value);
+    }
+
+    public Aggregation aggregation() {
+        return aggregation;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public long key(int index) {
+        return keys[index];
+    }
+
+    public long count(int index) {
+        return counts[index];
+    }
+
+    public double value(int index) {
+        return values[index];
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            visitor.visit(keys[i], counts[i], values[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AggregatesSnapshot(" + aggregation + ", " + keys.length + " keys)";
+    }
+}
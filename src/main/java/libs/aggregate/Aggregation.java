@@ -0,0 +1,21 @@
+package libs.aggregate;
+
+/**
+ * Agrégat appliqué à chaque valeur d'une clé.
+ */
+public enum Aggregation {
+    SUM(0),
+    PRODUCT(1),
+    MIN(Double.POSITIVE_INFINITY),
+    MAX(Double.NEGATIVE_INFINITY),
+    /**
+     * Nombre de valeurs reçues, la valeur elle-même est ignorée.
+     */
+    COUNT(0);
+
+    final double identity;
+
+    Aggregation(double identity) {
+        this.identity = identity;
+    }
+}
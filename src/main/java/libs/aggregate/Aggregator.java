@@ -0,0 +1,65 @@
+package libs.aggregate;
+
+import akka.actor.AbstractActor;
+import akka.actor.Props;
+
+/**
+ * Acteur qui tient des {@link KeyedAggregates}. Les messages portent des primitives : pas de boxing par évènement,
+ * et {@link ApplyAll} amortit l'envoi sur tout un lot.
+ */
+public final class Aggregator extends AbstractActor {
+
+    private final KeyedAggregates aggregates;
+
+    public static Props props(Aggregation aggregation, int expectedKeys) {
+        return Props.create(Aggregator.class, () -> new Aggregator(aggregation, expectedKeys));
+    }
+
+    private Aggregator(Aggregation aggregation, int expectedKeys) {
+        this.aggregates = new KeyedAggregates(aggregation, expectedKeys);
+    }
+
+    public static final class Apply {
+        private final long key;
+        private final double value;
+
+        public Apply(long key, double value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Lot d'évènements ; l'émetteur ne doit plus modifier les tableaux après l'envoi.
+     */
+    public static final class ApplyAll {
+        private final long[] keys;
+        private final double[] values;
+        private final int length;
+
+        public ApplyAll(long[] keys, double[] values, int length) {
+            this.keys = keys;
+            this.values = values;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Demande un {@link AggregatesSnapshot} en réponse.
+     */
+    public static final class GetSnapshot {
+        public static final GetSnapshot INSTANCE = new GetSnapshot();
+
+        private GetSnapshot() {
+        }
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(Apply.class, msg -> aggregates.apply(msg.key, msg.value))
+                .match(ApplyAll.class, msg -> aggregates.applyAll(msg.keys, msg.values, 0, msg.length))
+                .match(GetSnapshot.class, msg -> sender().tell(aggregates.snapshot(), self()))
+                .build();
+    }
+}
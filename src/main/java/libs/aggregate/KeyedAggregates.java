@@ -0,0 +1,183 @@
+package libs.aggregate;
+
+import libs.dedup.Hashing;
+
+import java.util.Arrays;
+
+/**
+ * Agrégats courants par clé {@code long}, rangés dans des tableaux primitifs (adressage ouvert, sondage linéaire) :
+ * ni boxing ni noeud alloué par évènement, quel que soit le nombre de clés.
+ *
+ * Les clés non numériques peuvent passer par un hash 64 bits ({@code libs.dedup.Hashing#hash64}).
+ * Non thread-safe : une instance par acteur ou par stage.
+ */
+public final class KeyedAggregates {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final Aggregation aggregation;
+    private long[] keys;
+    // 0 = case libre : une clé présente a toujours reçu au moins une valeur
+    private long[] counts;
+    private double[] values;
+    private int mask;
+    private int size = 0;
+
+    public KeyedAggregates(Aggregation aggregation, int expectedKeys) {
+        if (expectedKeys < 0) {
+            throw new IllegalArgumentException("expectedKeys must be >= 0, was " + expectedKeys);
+        }
+        this.aggregation = aggregation;
+        allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedKeys - 1)) << 2));
+    }
+
+    public Aggregation aggregation() {
+        return aggregation;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void apply(long key, double value) {
+        final int slot = slotFor(key);
+        final double current = counts[slot] == 0 ? aggregation.identity : values[slot];
+        counts[slot]++;
+        values[slot] = combine(current, value, counts[slot]);
+    }
+
+    /**
+     * Applique {@code length} couples {@code (keys[i], values[i])} à partir de {@code offset}.
+     */
+    public void applyAll(long[] keys, double[] values, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > keys.length || offset + length > values.length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length);
+        }
+        for (int i = offset; i < offset + length; i++) {
+            apply(keys[i], values[i]);
+        }
+    }
+
+    public boolean contains(long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * @return l'agrégat de la clé, ou l'élément neutre si elle n'a encore rien reçu
+     */
+    public double get(long key) {
+        final int slot = find(key);
+        return slot < 0 ? aggregation.identity : values[slot];
+    }
+
+    public long count(long key) {
+        final int slot = find(key);
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    /**
+     * Copie compacte de l'état, indépendante des mises à jour suivantes.
+     */
+    public AggregatesSnapshot snapshot() {
+        final long[] snapshotKeys = new long[size];
+        final long[] snapshotCounts = new long[size];
+        final double[] snapshotValues = new double[size];
+        int next = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (counts[i] != 0) {
+                snapshotKeys[next] = keys[i];
+                snapshotCounts[next] = counts[i];
+                snapshotValues[next] = values[i];
+                next++;
+            }
+        }
+        return new AggregatesSnapshot(aggregation, snapshotKeys, snapshotCounts, snapshotValues);
+    }
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    public long memoryBytes() {
+        return keys.length * 24L;
+    }
+
+    private double combine(double current, double value, long count) {
+        switch (aggregation) {
+            case SUM:
+                return current + value;
+            case PRODUCT:
+                return current * value;
+            case MIN:
+                return Math.min(current, value);
+            case MAX:
+                return Math.max(current, value);
+            case COUNT:
+                return count;
+            default:
+                throw new IllegalStateException("Unknown aggregation " + aggregation);
+        }
+    }
+
+    private static int indexOf(long key, int mask) {
+        return (int) Hashing.mix(key) & mask;
+    }
+
+    private int find(long key) {
+        for (int i = indexOf(key, mask); counts[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int slotFor(long key) {
+        int i = indexOf(key, mask);
+        while (counts[i] != 0) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        // taux de remplissage <= 1/2
+        if (size + 1 > keys.length / 2) {
+            grow();
+            return slotFor(key);
+        }
+        keys[i] = key;
+        size++;
+        return i;
+    }
+
+    private void grow() {
+        final long[] oldKeys = keys;
+        final long[] oldCounts = counts;
+        final double[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = indexOf(oldKeys[i], mask);
+                while (counts[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        counts = new long[capacity];
+        values = new double[capacity];
+        mask = capacity - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyedAggregates(" + aggregation + ", " + size + " keys)";
+    }
+}
@@ -0,0 +1,65 @@
+package libs.cache;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Cache borné en nombre d'entrées, avec expiration après écriture. Une instance par stage : pas besoin
+ * d'être thread-safe.
+ */
+public interface Cache<K, V> {
+
+    /**
+     * Compte l'accès dans la politique d'éviction.
+     *
+     * @return la valeur, ou {@code null} si la clé est absente ou expirée
+     */
+    V get(K key);
+
+    /**
+     * @return le nombre d'entrées évincées pour faire de la place (y compris {@code key} elle-même si la
+     * politique refuse de l'admettre)
+     */
+    int put(K key, V value);
+
+    int size();
+
+    /**
+     * Éviction de l'entrée la moins récemment lue.
+     *
+     * @param ttl durée de vie d'une entrée, {@link Duration#ZERO} pour ne pas expirer
+     */
+    static <K, V> Supplier<Cache<K, V>> lru(int maxEntries, Duration ttl) {
+        return () -> new LruCache<>(maxEntries, ttl, System::nanoTime);
+    }
+
+    /**
+     * W-TinyLFU : une petite fenêtre LRU absorbe les rafales, puis une clé n'entre dans la zone principale
+     * (LRU segmentée) que si elle est plus souvent demandée que celle qu'elle remplacerait, d'après un sketch
+     * de fréquences qui vieillit. Résiste mieux que LRU aux balayages de clés vues une seule fois.
+     *
+     * @param ttl durée de vie d'une entrée, {@link Duration#ZERO} pour ne pas expirer
+     */
+    static <K, V> Supplier<Cache<K, V>> tinyLfu(int maxEntries, Duration ttl) {
+        return () -> new TinyLfuCache<>(maxEntries, ttl, System::nanoTime);
+    }
+
+    /**
+     * Lit {@code policy} ({@code tiny-lfu} ou {@code lru}), {@code max-entries} et {@code ttl}.
+     */
+    static <K, V> Supplier<Cache<K, V>> fromConfig(Config config) {
+        final String policy = config.getString("policy");
+        final int maxEntries = config.getInt("max-entries");
+        final Duration ttl = config.getDuration("ttl");
+        switch (policy) {
+            case "tiny-lfu":
+                return tinyLfu(maxEntries, ttl);
+            case "lru":
+                return lru(maxEntries, ttl);
+            default:
+                throw new IllegalArgumentException("Unknown cache policy " + policy);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package libs.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs d'un {@link CachedLookup} : clés trouvées en cache, chargements lancés, clés rattachées à un
+ * chargement déjà en cours et entrées évincées.
+ * Écrits uniquement par le stage, lisibles depuis n'importe quel thread.
+ */
+public final class CacheStats {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    CacheStats() {
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Clés absentes ou expirées, chacune ayant déclenché un chargement.
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Clés absentes du cache mais déjà en cours de chargement : aucun chargement supplémentaire.
+     */
+    public long coalesced() {
+        return coalesced.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public long requests() {
+        return hits() + misses() + coalesced();
+    }
+
+    /**
+     * Part des demandes servies sans chargement (hits et chargements partagés).
+     */
+    public double hitRate() {
+        final long requests = requests();
+        return requests == 0 ? 0 : (double) (hits() + coalesced()) / requests;
+    }
+
+    void onHit() {
+        hits.incrementAndGet();
+    }
+
+    void onMiss() {
+        misses.incrementAndGet();
+    }
+
+    void onCoalesced() {
+        coalesced.incrementAndGet();
+    }
+
+    void evicted(long n) {
+        evictions.addAndGet(n);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats(hits=%d, misses=%d, coalesced=%d, evictions=%d, hitRate=%.3f)",
+                hits(), misses(), coalesced(), evictions(), hitRate());
+    }
+}
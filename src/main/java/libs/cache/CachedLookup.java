@@ -0,0 +1,229 @@
+package libs.cache;
+
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.javadsl.Flow;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.AsyncCallback;
+import akka.stream.stage.GraphStageLogic;
+import akka.stream.stage.GraphStageWithMaterializedValue;
+import scala.Tuple2;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Enrichit chaque élément avec la valeur de sa clé, lue dans un {@link Cache} créé à chaque matérialisation
+ * ou chargée par {@code loader} en cas d'absence. Les demandes d'une clé déjà en cours de chargement attendent
+ * ce chargement au lieu d'en lancer un autre.
+ *
+ * L'ordre des éléments est conservé : une clé trouvée en cache attend les chargements qui la précèdent.
+ * Au plus {@code parallelism} éléments sont en attente. Un échec ou une valeur {@code null} fait échouer le stream.
+ */
+public final class CachedLookup<T, K, V, O> extends GraphStageWithMaterializedValue<FlowShape<T, O>, CacheStats> {
+
+    private final Inlet<T> in = Inlet.create("CachedLookup.in");
+    private final Outlet<O> out = Outlet.create("CachedLookup.out");
+    private final FlowShape<T, O> shape = FlowShape.of(in, out);
+
+    private final int parallelism;
+    private final Supplier<Cache<K, V>> cacheFactory;
+    private final Function<? super T, ? extends K> key;
+    private final Function<? super K, ? extends CompletionStage<V>> loader;
+    private final BiFunction<? super T, ? super V, ? extends O> combine;
+
+    /**
+     * La valeur de chaque clé.
+     */
+    public static <K, V> Flow<K, V, CacheStats> create(int parallelism,
+                                                       Supplier<Cache<K, V>> cacheFactory,
+                                                       Function<? super K, ? extends CompletionStage<V>> loader) {
+        return enrich(parallelism, cacheFactory, Function.identity(), loader, (k, v) -> v);
+    }
+
+    /**
+     * {@code combine} de chaque élément avec la valeur de sa clé.
+     */
+    public static <T, K, V, O> Flow<T, O, CacheStats> enrich(int parallelism,
+                                                             Supplier<Cache<K, V>> cacheFactory,
+                                                             Function<? super T, ? extends K> key,
+                                                             Function<? super K, ? extends CompletionStage<V>> loader,
+                                                             BiFunction<? super T, ? super V, ? extends O> combine) {
+        return Flow.fromGraph(new CachedLookup<>(parallelism, cacheFactory, key, loader, combine));
+    }
+
+    private CachedLookup(int parallelism,
+                         Supplier<Cache<K, V>> cacheFactory,
+                         Function<? super T, ? extends K> key,
+                         Function<? super K, ? extends CompletionStage<V>> loader,
+                         BiFunction<? super T, ? super V, ? extends O> combine) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be >= 1, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.cacheFactory = cacheFactory;
+        this.key = key;
+        this.loader = loader;
+        this.combine = combine;
+    }
+
+    @Override
+    public FlowShape<T, O> shape() {
+        return shape;
+    }
+
+    @Override
+    public Tuple2<GraphStageLogic, CacheStats> createLogicAndMaterializedValue(Attributes inheritedAttributes) {
+        final CacheStats stats = new CacheStats();
+        final GraphStageLogic logic = new GraphStageLogic(shape) {
+
+            private final Cache<K, V> cache = cacheFactory.get();
+            // Éléments dans l'ordre d'arrivée, servis ou en attente de leur valeur
+            private final Deque<Slot<T, V>> queue = new ArrayDeque<>();
+            // Chargements en cours, avec les éléments qui les attendent
+            private final Map<K, List<Slot<T, V>>> loading = new HashMap<>();
+            private AsyncCallback<Loaded<K, V>> loaded;
+
+            {
+                setHandler(in, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        final T element = grab(in);
+                        final K k = key.apply(element);
+                        final Slot<T, V> slot = new Slot<>(element);
+                        queue.add(slot);
+
+                        final V cached = cache.get(k);
+                        if (cached != null) {
+                            stats.onHit();
+                            slot.fill(cached);
+                        } else if (loading.containsKey(k)) {
+                            stats.onCoalesced();
+                            loading.get(k).add(slot);
+                        } else {
+                            stats.onMiss();
+                            final List<Slot<T, V>> waiting = new ArrayList<>();
+                            waiting.add(slot);
+                            loading.put(k, waiting);
+                            load(k);
+                        }
+                        pushIfReady();
+                        pullIfNeeded();
+                    }
+
+                    @Override
+                    public void onUpstreamFinish() {
+                        completeIfDone();
+                    }
+                });
+
+                setHandler(out, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        pushIfReady();
+                        completeIfDone();
+                        pullIfNeeded();
+                    }
+                });
+            }
+
+            @Override
+            public void preStart() {
+                loaded = createAsyncCallback(this::onLoaded);
+                pull(in);
+            }
+
+            private void load(K k) {
+                final CompletableFuture<V> future = loader.apply(k).toCompletableFuture();
+                if (future.isDone()) {
+                    // Déjà chargé : traité sur place, sans repasser par l'acteur du stage
+                    future.whenComplete((value, error) -> onLoaded(new Loaded<>(k, value, error)));
+                } else {
+                    future.whenComplete((value, error) -> loaded.invoke(new Loaded<>(k, value, error)));
+                }
+            }
+
+            private void onLoaded(Loaded<K, V> result) {
+                if (result.error != null) {
+                    failStage(result.error);
+                    return;
+                }
+                if (result.value == null) {
+                    failStage(new IllegalStateException("No value loaded for key " + result.key));
+                    return;
+                }
+                stats.evicted(cache.put(result.key, result.value));
+                for (Slot<T, V> slot : loading.remove(result.key)) {
+                    slot.fill(result.value);
+                }
+                pushIfReady();
+                completeIfDone();
+                pullIfNeeded();
+            }
+
+            private void pushIfReady() {
+                if (isAvailable(out) && !queue.isEmpty() && queue.peek().filled) {
+                    final Slot<T, V> head = queue.poll();
+                    push(out, combine.apply(head.element, head.value));
+                }
+            }
+
+            private void pullIfNeeded() {
+                if (queue.size() < parallelism && !hasBeenPulled(in) && !isClosed(in)) {
+                    pull(in);
+                }
+            }
+
+            private void completeIfDone() {
+                if (isClosed(in) && queue.isEmpty()) {
+                    completeStage();
+                }
+            }
+        };
+        return Tuple2.apply(logic, stats);
+    }
+
+    @Override
+    public String toString() {
+        return "CachedLookup(" + parallelism + ")";
+    }
+
+    private static final class Slot<T, V> {
+        private final T element;
+        private V value;
+        private boolean filled;
+
+        private Slot(T element) {
+            this.element = element;
+        }
+
+        private void fill(V value) {
+            this.value = value;
+            this.filled = true;
+        }
+    }
+
+    private static final class Loaded<K, V> {
+        private final K key;
+        private final V value;
+        private final Throwable error;
+
+        private Loaded(K key, V value, Throwable error) {
+            this.key = key;
+            this.value = value;
+            this.error = error;
+        }
+    }
+}
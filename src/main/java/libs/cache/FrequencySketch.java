@@ -0,0 +1,62 @@
+package libs.cache;
+
+import libs.dedup.Hashing;
+
+/**
+ * Count-Min sketch à compteurs saturés à 15, quatre lignes. Après {@code 10 * maxEntries} incréments, tous les
+ * compteurs sont divisés par deux : une clé populaire autrefois finit par céder la place.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final long[] SEEDS = {0x9e3779b97f4a7c15L, 0xc2b2ae3d27d4eb4fL, 0x165667b19e3779f9L, 0xd6e8feb86659fd93L};
+
+    private final byte[] counters;
+    private final int mask;
+    private final int sampleSize;
+    private int additions = 0;
+
+    FrequencySketch(int maxEntries) {
+        // Quatre compteurs par entrée et par ligne, pour limiter les collisions
+        final int width = Integer.highestOneBit(Math.max(16, maxEntries - 1)) << 3;
+        this.counters = new byte[DEPTH * width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * Math.max(1, maxEntries);
+    }
+
+    int frequency(Object key) {
+        final long hash = key.hashCode();
+        int min = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, counters[index(hash, row)]);
+        }
+        return min;
+    }
+
+    void increment(Object key) {
+        final long hash = key.hashCode();
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            final int i = index(hash, row);
+            if (counters[i] < MAX_COUNT) {
+                counters[i]++;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            age();
+        }
+    }
+
+    private void age() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] >>= 1;
+        }
+        additions /= 2;
+    }
+
+    private int index(long hash, int row) {
+        return row * (mask + 1) + ((int) Hashing.mix(hash ^ SEEDS[row]) & mask);
+    }
+}
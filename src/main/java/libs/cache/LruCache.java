@@ -0,0 +1,69 @@
+package libs.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link LinkedHashMap} en ordre d'accès : la tête est la moins récemment lue, évincée au-delà de {@code maxEntries}.
+ */
+final class LruCache<K, V> implements Cache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    LruCache(int maxEntries, Duration ttl, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be >= 1, was " + maxEntries);
+        }
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl must be >= 0, was " + ttl);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.isZero() ? Long.MAX_VALUE : ttl.toNanos();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    @Override
+    public V get(K key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.writtenAt >= ttlNanos) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public int put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.getAsLong()));
+        if (entries.size() <= maxEntries) {
+            return 0;
+        }
+        final Map.Entry<K, Entry<V>> eldest = entries.entrySet().iterator().next();
+        entries.remove(eldest.getKey());
+        return 1;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long writtenAt;
+
+        private Entry(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
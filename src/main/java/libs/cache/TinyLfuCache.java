@@ -0,0 +1,153 @@
+package libs.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * W-TinyLFU : fenêtre LRU (1 % des entrées) puis zone principale LRU segmentée, "probation" (20 %) et
+ * "protected" (80 %). Une entrée relue en probation passe en protected ; le trop-plein de protected redescend
+ * en probation.
+ *
+ * Quand la fenêtre déborde, sa plus ancienne entrée (la candidate) n'entre dans la zone principale pleine que
+ * si le {@link FrequencySketch} la juge plus demandée que la plus ancienne de probation (la victime) ;
+ * sinon c'est elle qui est évincée.
+ */
+final class TinyLfuCache<K, V> implements Cache<K, V> {
+
+    private enum Segment {WINDOW, PROBATION, PROTECTED}
+
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final FrequencySketch sketch;
+
+    private final int windowMax;
+    private final int mainMax;
+    private final int protectedMax;
+
+    private final Map<K, Entry<V>> entries = new HashMap<>();
+    // Ordre LRU de chaque segment : la tête est la moins récemment lue
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+    TinyLfuCache(int maxEntries, Duration ttl, LongSupplier clock) {
+        if (maxEntries < 2) {
+            throw new IllegalArgumentException("maxEntries must be >= 2, was " + maxEntries);
+        }
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl must be >= 0, was " + ttl);
+        }
+        this.ttlNanos = ttl.isZero() ? Long.MAX_VALUE : ttl.toNanos();
+        this.clock = clock;
+        this.sketch = new FrequencySketch(maxEntries);
+        this.windowMax = Math.max(1, maxEntries / 100);
+        this.mainMax = maxEntries - windowMax;
+        this.protectedMax = Math.max(1, mainMax * 4 / 5);
+    }
+
+    @Override
+    public V get(K key) {
+        sketch.increment(key);
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.writtenAt >= ttlNanos) {
+            remove(key, entry);
+            return null;
+        }
+        switch (entry.segment) {
+            case WINDOW:
+                window.get(key);
+                break;
+            case PROBATION:
+                probation.remove(key);
+                entry.segment = Segment.PROTECTED;
+                protectedSegment.put(key, entry);
+                demoteProtected();
+                break;
+            case PROTECTED:
+                protectedSegment.get(key);
+                break;
+        }
+        return entry.value;
+    }
+
+    @Override
+    public int put(K key, V value) {
+        final Entry<V> previous = entries.get(key);
+        if (previous != null) {
+            remove(key, previous);
+        }
+        final Entry<V> entry = new Entry<>(value, clock.getAsLong());
+        entries.put(key, entry);
+        window.put(key, entry);
+        return window.size() > windowMax ? admitFromWindow() : 0;
+    }
+
+    @Override
+    public int size() {
+        return entries.size();
+    }
+
+    private int admitFromWindow() {
+        final K candidate = window.keySet().iterator().next();
+        final Entry<V> candidateEntry = window.remove(candidate);
+        candidateEntry.segment = Segment.PROBATION;
+
+        if (probation.size() + protectedSegment.size() < mainMax) {
+            probation.put(candidate, candidateEntry);
+            return 0;
+        }
+
+        final LinkedHashMap<K, Entry<V>> victims = probation.isEmpty() ? protectedSegment : probation;
+        final K victim = victims.keySet().iterator().next();
+        if (sketch.frequency(candidate) > sketch.frequency(victim)) {
+            entries.remove(victim);
+            victims.remove(victim);
+            probation.put(candidate, candidateEntry);
+        } else {
+            entries.remove(candidate);
+        }
+        return 1;
+    }
+
+    private void demoteProtected() {
+        if (protectedSegment.size() <= protectedMax) {
+            return;
+        }
+        final K demoted = protectedSegment.keySet().iterator().next();
+        final Entry<V> entry = protectedSegment.remove(demoted);
+        entry.segment = Segment.PROBATION;
+        probation.put(demoted, entry);
+    }
+
+    private void remove(K key, Entry<V> entry) {
+        entries.remove(key);
+        switch (entry.segment) {
+            case WINDOW:
+                window.remove(key);
+                break;
+            case PROBATION:
+                probation.remove(key);
+                break;
+            case PROTECTED:
+                protectedSegment.remove(key);
+                break;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long writtenAt;
+        private Segment segment = Segment.WINDOW;
+
+        private Entry(V value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package libs.checkpoint;
+
+import java.util.Objects;
+
+/**
+ * Point de reprise d'une ingestion : tout ce qui précède {@code offset} dans {@code source} a été acquitté,
+ * jusqu'à la ligne numéro {@code row} inclus (comptée depuis le début du fichier, en-tête exclu).
+ * La reprise relit le fichier à partir de {@code offset} et numérote la ligne suivante {@code row + 1}.
+ */
+public final class Checkpoint {
+
+    private final String source;
+    private final long offset;
+    private final long row;
+
+    public Checkpoint(String source, long offset, long row) {
+        this.source = source;
+        this.offset = offset;
+        this.row = row;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public long offset() {
+        return offset;
+    }
+
+    public long row() {
+        return row;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Checkpoint)) {
+            return false;
+        }
+        final Checkpoint that = (Checkpoint) o;
+        return offset == that.offset && row == that.row && source.equals(that.source);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(source, offset, row);
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint(" + source + ", offset=" + offset + ", row=" + row + ")";
+    }
+}
@@ -0,0 +1,91 @@
+package libs.checkpoint;
+
+import akka.util.ByteString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.vavr.control.Option;
+import libs.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Dernier {@link Checkpoint} enregistré dans un petit fichier JSON local.
+ *
+ * Chaque écriture passe par un fichier temporaire synchronisé sur disque puis renommé atomiquement :
+ * un arrêt brutal laisse l'ancien point de reprise ou le nouveau, jamais un fichier tronqué.
+ */
+public final class CheckpointFile {
+
+    private final Path file;
+    private final Path temporary;
+
+    public CheckpointFile(Path file) {
+        this.file = file.toAbsolutePath();
+        this.temporary = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public Option<Checkpoint> load() {
+        if (!Files.exists(file)) {
+            return Option.none();
+        }
+        try {
+            final JsonNode json = Json.parse(ByteString.fromArray(Files.readAllBytes(file)));
+            return Option.of(new Checkpoint(json.path("source").asText(), json.path("offset").asLong(), json.path("row").asLong()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Point de reprise enregistré pour {@code source}, ignoré s'il concerne un autre fichier.
+     */
+    public Option<Checkpoint> load(String source) {
+        return load().filter(checkpoint -> checkpoint.source().equals(source));
+    }
+
+    public void save(Checkpoint checkpoint) {
+        final ObjectNode json = Json.newObject();
+        json.put("source", checkpoint.source());
+        json.put("offset", checkpoint.offset());
+        json.put("row", checkpoint.row());
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer bytes = Json.toByteString(json).asByteBuffer();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CheckpointFile(" + file + ")";
+    }
+}
@@ -0,0 +1,68 @@
+package libs.checkpoint;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Position acquittée d'un flux d'éléments (lignes, lots...) numérotés dans l'ordre de lecture mais acquittés
+ * dans le désordre.
+ *
+ * Elle n'avance que sur une suite contiguë d'éléments acquittés : tout ce qui précède est traité, un élément
+ * acquitté plus loin attend les précédents. Non thread-safe : à utiliser depuis un seul stage.
+ */
+public final class Watermark {
+
+    private final Map<Long, Long> pending = new HashMap<>();
+    private long next;
+    private long offset;
+
+    /**
+     * @param first  numéro du premier élément attendu
+     * @param offset position de départ, avant le premier élément
+     */
+    public Watermark(long first, long offset) {
+        this.next = first;
+        this.offset = offset;
+    }
+
+    /**
+     * @param sequence numéro de l'élément
+     * @param end      position juste après l'élément
+     * @return vrai si la position acquittée a avancé
+     */
+    public boolean acknowledge(long sequence, long end) {
+        if (sequence < next) {
+            return false;
+        }
+        pending.put(sequence, end);
+        boolean advanced = false;
+        Long reached;
+        while ((reached = pending.remove(next)) != null) {
+            offset = reached;
+            next++;
+            advanced = true;
+        }
+        return advanced;
+    }
+
+    /**
+     * Position jusqu'à laquelle tout est acquitté.
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * Dernier élément acquitté avec tous ses prédécesseurs, ou le numéro du premier élément - 1.
+     */
+    public long last() {
+        return next - 1;
+    }
+
+    /**
+     * Éléments acquittés en avance, en attente d'un prédécesseur.
+     */
+    public int pending() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,83 @@
+package libs.csv;
+
+import akka.NotUsed;
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.javadsl.Flow;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+import akka.util.ByteString;
+
+import java.util.Map;
+
+/**
+ * Décode des lignes CSV (une {@link ByteString} par ligne, typiquement issue de {@code Framing.delimiter})
+ * en {@link CsvRow}. Les lignes vides sont ignorées.
+ *
+ * @see CsvParser
+ */
+public final class CsvDecoder extends GraphStage<FlowShape<ByteString, CsvRow>> {
+
+    private final Inlet<ByteString> in = Inlet.create("CsvDecoder.in");
+    private final Outlet<CsvRow> out = Outlet.create("CsvDecoder.out");
+    private final FlowShape<ByteString, CsvRow> shape = FlowShape.of(in, out);
+
+    private final CsvFormat format;
+
+    public static Flow<ByteString, CsvRow, NotUsed> create(CsvFormat format) {
+        return Flow.fromGraph(new CsvDecoder(format));
+    }
+
+    private CsvDecoder(CsvFormat format) {
+        this.format = format;
+    }
+
+    @Override
+    public FlowShape<ByteString, CsvRow> shape() {
+        return shape;
+    }
+
+    @Override
+    public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+        return new GraphStageLogic(shape) {
+
+            private final CsvParser parser = new CsvParser(format);
+            private boolean headerPending = format.header();
+            private Map<String, Integer> header = null;
+
+            {
+                setHandler(in, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        final ByteString line = grab(in);
+                        if (CsvParser.isBlank(line)) {
+                            pull(in);
+                        } else if (headerPending) {
+                            header = CsvParser.headerOf(parser.parse(line, null));
+                            headerPending = false;
+                            pull(in);
+                        } else {
+                            push(out, parser.parse(line, header));
+                        }
+                    }
+                });
+
+                setHandler(out, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        pull(in);
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "CsvDecoder";
+    }
+}
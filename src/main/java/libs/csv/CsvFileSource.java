@@ -0,0 +1,190 @@
+package libs.csv;
+
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Lecture parallèle d'un gros fichier CSV.
+ *
+ * Le fichier est découpé en plages d'environ {@code chunkSize} octets, alignées sur les fins de ligne.
+ * Chaque plage est lue d'un bloc dans un tableau sur le tas, sans recopie vers la {@link ByteString}, puis
+ * découpée en {@link CsvRow} sur l'{@code executor} fourni, jusqu'à {@code parallelism} plages à la fois.
+ * Avec {@code ordered}, les lignes sortent dans l'ordre du fichier.
+ *
+ * Chaque ligne connaît sa position de fin ({@link CsvRow#end()}) : une lecture peut reprendre à cette position
+ * sans relire le début du fichier, l'en-tête étant toujours relu.
+ */
+public final class CsvFileSource {
+
+    private static final byte NEW_LINE = '\n';
+    private static final int SCAN_SIZE = 4096;
+
+    private CsvFileSource() {
+    }
+
+    public static Source<CsvRow, NotUsed> rows(Path path,
+                                               CsvFormat format,
+                                               int chunkSize,
+                                               int parallelism,
+                                               boolean ordered,
+                                               Executor executor) {
+        return rows(path, format, chunkSize, parallelism, ordered, executor, 0);
+    }
+
+    /**
+     * @param fromOffset position de reprise, en début de ligne (typiquement le {@link CsvRow#end()} d'une ligne déjà traitée)
+     */
+    public static Source<CsvRow, NotUsed> rows(Path path,
+                                               CsvFormat format,
+                                               int chunkSize,
+                                               int parallelism,
+                                               boolean ordered,
+                                               Executor executor,
+                                               long fromOffset) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be >= 1, was " + chunkSize);
+        }
+        if (fromOffset < 0) {
+            throw new IllegalArgumentException("fromOffset must be >= 0, was " + fromOffset);
+        }
+        final Source<Chunk, NotUsed> chunks = Source.unfoldResource(
+                () -> new Chunker(path, format, chunkSize, fromOffset),
+                chunker -> Optional.ofNullable(chunker.next()),
+                Chunker::close);
+
+        final Source<List<CsvRow>, NotUsed> parsed = ordered
+                ? chunks.mapAsync(parallelism, chunk -> CompletableFuture.supplyAsync(() -> parse(format, chunk), executor))
+                : chunks.mapAsyncUnordered(parallelism, chunk -> CompletableFuture.supplyAsync(() -> parse(format, chunk), executor));
+
+        return parsed.mapConcat(rows -> rows);
+    }
+
+    static final class Chunk {
+        final long start;
+        final ByteString bytes;
+        final Map<String, Integer> header;
+
+        Chunk(long start, ByteString bytes, Map<String, Integer> header) {
+            this.start = start;
+            this.bytes = bytes;
+            this.header = header;
+        }
+    }
+
+    /**
+     * Calcule et lit les plages successives sur un seul canal : les lectures restent séquentielles, seul le
+     * découpage en lignes est parallèle. L'en-tête éventuel est lu une fois et partagé par toutes les plages.
+     */
+    private static final class Chunker {
+        private final FileChannel channel;
+        private final long size;
+        private final int chunkSize;
+        private final ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+        private final Map<String, Integer> header;
+        private long position;
+
+        Chunker(Path path, CsvFormat format, int chunkSize, long fromOffset) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.chunkSize = chunkSize;
+            if (format.header() && size > 0) {
+                final long headerEnd = lineEndFrom(0);
+                final ByteString line = read(0, headerEnd);
+                if (CsvParser.isBlank(stripNewLine(line))) {
+                    throw new IllegalArgumentException("Empty CSV header in " + path);
+                }
+                this.header = CsvParser.headerOf(new CsvParser(format).parse(stripNewLine(line), null));
+                this.position = headerEnd;
+            } else {
+                this.header = null;
+                this.position = 0;
+            }
+            this.position = Math.max(position, Math.min(fromOffset, size));
+        }
+
+        Chunk next() throws IOException {
+            if (position >= size) {
+                return null;
+            }
+            final long end = position + chunkSize >= size ? size : lineEndFrom(position + chunkSize - 1);
+            final Chunk chunk = new Chunk(position, read(position, end), header);
+            position = end;
+            return chunk;
+        }
+
+        /**
+         * Position juste après le premier saut de ligne trouvé à partir de {@code from}, ou la fin du fichier.
+         */
+        private long lineEndFrom(long from) throws IOException {
+            long offset = from;
+            while (offset < size) {
+                scan.clear();
+                final int read = channel.read(scan, offset);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (scan.get(i) == NEW_LINE) {
+                        return offset + i + 1;
+                    }
+                }
+                offset += read;
+            }
+            return size;
+        }
+
+        private ByteString read(long start, long end) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                // lecture jusqu'à remplir le buffer
+            }
+            // Le tableau n'est plus modifié : la ByteString l'utilise tel quel
+            return ByteString.fromArrayUnsafe(buffer.array(), 0, buffer.position());
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static List<CsvRow> parse(CsvFormat format, Chunk chunk) {
+        final ByteString bytes = chunk.bytes;
+        if (bytes.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final CsvParser parser = new CsvParser(format);
+        final List<CsvRow> rows = new ArrayList<>();
+        int from = 0;
+        while (from < bytes.size()) {
+            int to = bytes.indexOf(NEW_LINE, from);
+            if (to < 0) {
+                to = bytes.size();
+            }
+            final ByteString line = bytes.slice(from, to);
+            if (!CsvParser.isBlank(line)) {
+                rows.add(parser.parse(line, chunk.header, chunk.start + Math.min(to + 1, bytes.size())));
+            }
+            from = to + 1;
+        }
+        return rows;
+    }
+
+    private static ByteString stripNewLine(ByteString line) {
+        return !line.isEmpty() && line.last() == NEW_LINE ? line.dropRight(1) : line;
+    }
+}
@@ -0,0 +1,50 @@
+package libs.csv;
+
+/**
+ * Paramètres de lecture d'un fichier CSV : séparateur, caractère de quote et présence d'une ligne d'en-tête.
+ * Seuls les séparateurs et quotes ASCII sont supportés.
+ */
+public final class CsvFormat {
+
+    public static final CsvFormat DEFAULT = new CsvFormat(',', '"', false);
+
+    private final byte separator;
+    private final byte quote;
+    private final boolean header;
+
+    private CsvFormat(char separator, char quote, boolean header) {
+        if (separator > 0x7F || quote > 0x7F) {
+            throw new IllegalArgumentException("Only ASCII separator and quote are supported");
+        }
+        if (separator == quote) {
+            throw new IllegalArgumentException("Separator and quote must differ");
+        }
+        this.separator = (byte) separator;
+        this.quote = (byte) quote;
+        this.header = header;
+    }
+
+    public CsvFormat withSeparator(char separator) {
+        return new CsvFormat(separator, (char) quote, header);
+    }
+
+    public CsvFormat withQuote(char quote) {
+        return new CsvFormat((char) separator, quote, header);
+    }
+
+    public CsvFormat withHeader() {
+        return new CsvFormat((char) separator, (char) quote, true);
+    }
+
+    byte separator() {
+        return separator;
+    }
+
+    byte quote() {
+        return quote;
+    }
+
+    boolean header() {
+        return header;
+    }
+}
@@ -0,0 +1,109 @@
+package libs.csv;
+
+import akka.util.ByteString;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Découpe une ligne CSV en cherchant les séparateurs directement dans les octets.
+ *
+ * Les champs entre quotes peuvent contenir le séparateur et des quotes doublées, mais pas de saut de ligne.
+ * Un {@code \r} final est retiré. Non thread-safe : une instance par stage ou par tâche.
+ */
+final class CsvParser {
+
+    private final byte separator;
+    private final byte quote;
+    private int[] scratch = new int[16];
+
+    CsvParser(CsvFormat format) {
+        this.separator = format.separator();
+        this.quote = format.quote();
+    }
+
+    static boolean isBlank(ByteString line) {
+        return line.isEmpty() || (line.size() == 1 && line.head() == '\r');
+    }
+
+    CsvRow parse(ByteString line, Map<String, Integer> header) {
+        return parse(line, header, CsvRow.UNKNOWN_END);
+    }
+
+    /**
+     * @param lineEnd position dans le fichier juste après la ligne, saut de ligne compris
+     */
+    CsvRow parse(ByteString line, Map<String, Integer> header, long lineEnd) {
+        final ByteBuffer bytes = line.asByteBuffer();
+        final int base = bytes.position();
+        int length = bytes.remaining();
+        if (length > 0 && bytes.get(base + length - 1) == '\r') {
+            length--;
+        }
+
+        int count = 0;
+        int i = 0;
+        while (true) {
+            int start = i;
+            final int end;
+            boolean escaped = false;
+            if (i < length && bytes.get(base + i) == quote) {
+                start = ++i;
+                while (i < length) {
+                    if (bytes.get(base + i) == quote) {
+                        if (i + 1 < length && bytes.get(base + i + 1) == quote) {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                end = i;
+                while (i < length && bytes.get(base + i) != separator) {
+                    i++;
+                }
+            } else {
+                while (i < length && bytes.get(base + i) != separator) {
+                    i++;
+                }
+                end = i;
+            }
+
+            count = addField(count, start, escaped ? end | CsvRow.ESCAPED : end);
+
+            if (i >= length) {
+                break;
+            }
+            i++;
+            if (i == length) {
+                // séparateur final : dernier champ vide
+                count = addField(count, length, length);
+                break;
+            }
+        }
+
+        return new CsvRow(line, Arrays.copyOf(scratch, 2 * count), quote, header, lineEnd);
+    }
+
+    private int addField(int count, int start, int end) {
+        if (2 * count + 2 > scratch.length) {
+            scratch = Arrays.copyOf(scratch, scratch.length * 2);
+        }
+        scratch[2 * count] = start;
+        scratch[2 * count + 1] = end;
+        return count + 1;
+    }
+
+    static Map<String, Integer> headerOf(CsvRow row) {
+        final Map<String, Integer> names = new HashMap<>();
+        for (int i = 0; i < row.size(); i++) {
+            names.put(row.field(i).trim(), i);
+        }
+        return Collections.unmodifiableMap(names);
+    }
+}
@@ -0,0 +1,89 @@
+package libs.csv;
+
+import akka.util.ByteString;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Une ligne CSV décodée. Les champs restent des tranches de la ligne d'origine :
+ * seuls ceux réellement lus sont convertis en {@code String}.
+ */
+public final class CsvRow {
+
+    static final long UNKNOWN_END = -1;
+
+    /**
+     * Bit de poids fort de la fin d'un champ dans {@code bounds} : le champ contient des quotes doublées.
+     */
+    static final int ESCAPED = Integer.MIN_VALUE;
+
+    private final ByteString line;
+    // début et fin (éventuellement marquée ESCAPED) de chaque champ
+    private final int[] bounds;
+    private final byte quote;
+    private final Map<String, Integer> header;
+    private final long end;
+
+    CsvRow(ByteString line, int[] bounds, byte quote, Map<String, Integer> header, long end) {
+        this.line = line;
+        this.bounds = bounds;
+        this.quote = quote;
+        this.header = header;
+        this.end = end;
+    }
+
+    /**
+     * Position dans le fichier juste après cette ligne, saut de ligne compris : une reprise à cette position
+     * commence à la ligne suivante. Vaut -1 quand la ligne ne vient pas de {@link CsvFileSource}.
+     */
+    public long end() {
+        return end;
+    }
+
+    public int size() {
+        return bounds.length / 2;
+    }
+
+    /**
+     * Octets bruts du champ, sans les quotes englobantes ni dé-échappement.
+     */
+    public ByteString fieldBytes(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Field " + index + " out of " + size());
+        }
+        return line.slice(bounds[2 * index], bounds[2 * index + 1] & ~ESCAPED);
+    }
+
+    public String field(int index) {
+        final String value = fieldBytes(index).utf8String();
+        if ((bounds[2 * index + 1] & ESCAPED) != 0) {
+            final String quoteString = String.valueOf((char) quote);
+            return value.replace(quoteString + quoteString, quoteString);
+        }
+        return value;
+    }
+
+    public String field(String name) {
+        if (header == null) {
+            throw new IllegalStateException("No header for this CSV format");
+        }
+        final Integer index = header.get(name);
+        if (index == null) {
+            throw new NoSuchElementException("Unknown column " + name);
+        }
+        return field(index);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("CsvRow(");
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(field(i));
+        }
+        return builder.append(')').toString();
+    }
+}
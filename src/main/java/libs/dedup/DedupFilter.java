@@ -0,0 +1,86 @@
+package libs.dedup;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Mémoire bornée des clés déjà vues. Une instance par stage ou par acteur : pas besoin d'être thread-safe.
+ */
+public interface DedupFilter<K> {
+
+    /**
+     * Enregistre {@code key}.
+     *
+     * @return vrai si la clé n'avait pas encore été vue (ou a été oubliée depuis)
+     */
+    boolean firstSeen(K key);
+
+    /**
+     * Estimation de la mémoire occupée par la structure, hors objets clés.
+     */
+    long memoryBytes();
+
+    /**
+     * Ensemble exact limité à {@code maxEntries} clés, qui oublie les plus anciennes au-delà.
+     *
+     * @param ttl    durée de rétention d'une clé, {@link Duration#ZERO} pour ne pas expirer
+     * @param expiry expiration à partir de l'insertion ou du dernier accès
+     */
+    static <K> Supplier<DedupFilter<K>> exact(int maxEntries, Duration ttl, Expiry expiry) {
+        return () -> new WindowedSet<>(maxEntries, ttl, expiry, System::nanoTime);
+    }
+
+    /**
+     * Filtre de Bloom extensible : jamais de faux négatif, au plus {@code falsePositiveRate} de faux positifs
+     * (clé nouvelle considérée comme déjà vue). Au-delà de {@code maxBytes}, les clés les plus anciennes sont oubliées.
+     *
+     * @param hasher hash 64 bits de la clé, par exemple {@link Hashing#hash64(CharSequence)}
+     */
+    static <K> Supplier<DedupFilter<K>> bloom(long initialCapacity, double falsePositiveRate, long maxBytes,
+                                              ToLongFunction<? super K> hasher) {
+        return () -> new ScalableBloomFilter<>(initialCapacity, falsePositiveRate, maxBytes, hasher);
+    }
+
+    /**
+     * Lit {@code backend} ({@code exact} ou {@code bloom}) puis le bloc du même nom :
+     * {@code max-entries}, {@code ttl} et {@code expiry} ({@code after-write} ou {@code after-access}) pour
+     * {@code exact} ; {@code initial-capacity}, {@code false-positive-rate} et {@code max-bytes} pour {@code bloom}.
+     */
+    static <K> Supplier<DedupFilter<K>> fromConfig(Config config, ToLongFunction<? super K> hasher) {
+        final String backend = config.getString("backend");
+        switch (backend) {
+            case "exact":
+                return exact(
+                        config.getInt("exact.max-entries"),
+                        config.getDuration("exact.ttl"),
+                        Expiry.fromConfig(config.getString("exact.expiry")));
+            case "bloom":
+                return bloom(
+                        config.getLong("bloom.initial-capacity"),
+                        config.getDouble("bloom.false-positive-rate"),
+                        config.getBytes("bloom.max-bytes"),
+                        hasher);
+            default:
+                throw new IllegalArgumentException("Unknown dedup backend " + backend);
+        }
+    }
+
+    enum Expiry {
+        AFTER_WRITE,
+        AFTER_ACCESS;
+
+        static Expiry fromConfig(String value) {
+            switch (value) {
+                case "after-write":
+                    return AFTER_WRITE;
+                case "after-access":
+                    return AFTER_ACCESS;
+                default:
+                    throw new IllegalArgumentException("Unknown expiry " + value);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package libs.dedup;
+
+import akka.NotUsed;
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.javadsl.Flow;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ne laisse passer que la première occurrence de chaque clé, selon un {@link DedupFilter} créé à chaque
+ * matérialisation.
+ */
+public final class Deduplicate<T, K> extends GraphStage<FlowShape<T, T>> {
+
+    private final Inlet<T> in = Inlet.create("Deduplicate.in");
+    private final Outlet<T> out = Outlet.create("Deduplicate.out");
+    private final FlowShape<T, T> shape = FlowShape.of(in, out);
+
+    private final Supplier<DedupFilter<K>> filterFactory;
+    private final Function<? super T, ? extends K> key;
+
+    public static <T> Flow<T, T, NotUsed> create(Supplier<DedupFilter<T>> filterFactory) {
+        return create(filterFactory, Function.identity());
+    }
+
+    public static <T, K> Flow<T, T, NotUsed> create(Supplier<DedupFilter<K>> filterFactory, Function<? super T, ? extends K> key) {
+        return Flow.fromGraph(new Deduplicate<>(filterFactory, key));
+    }
+
+    private Deduplicate(Supplier<DedupFilter<K>> filterFactory, Function<? super T, ? extends K> key) {
+        this.filterFactory = filterFactory;
+        this.key = key;
+    }
+
+    @Override
+    public FlowShape<T, T> shape() {
+        return shape;
+    }
+
+    @Override
+    public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+        return new GraphStageLogic(shape) {
+
+            private final DedupFilter<K> filter = filterFactory.get();
+
+            {
+                setHandler(in, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        final T element = grab(in);
+                        if (filter.firstSeen(key.apply(element))) {
+                            push(out, element);
+                        } else {
+                            pull(in);
+                        }
+                    }
+                });
+
+                setHandler(out, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        pull(in);
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Deduplicate";
+    }
+}
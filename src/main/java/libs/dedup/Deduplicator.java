@@ -0,0 +1,49 @@
+package libs.dedup;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Acteur qui transmet à {@code next} la première occurrence de chaque clé, avec une mémoire bornée
+ * (voir {@link DedupFilter}).
+ */
+public final class Deduplicator<T, K> extends AbstractActor {
+
+    private final Class<T> messageType;
+    private final Function<? super T, ? extends K> key;
+    private final DedupFilter<K> filter;
+    private final ActorRef next;
+
+    public static <T> Props props(Class<T> messageType, Supplier<DedupFilter<T>> filterFactory, ActorRef next) {
+        return props(messageType, filterFactory, Function.identity(), next);
+    }
+
+    public static <T, K> Props props(Class<T> messageType,
+                                     Supplier<DedupFilter<K>> filterFactory,
+                                     Function<? super T, ? extends K> key,
+                                     ActorRef next) {
+        return Props.create(Deduplicator.class, () -> new Deduplicator<>(messageType, filterFactory.get(), key, next));
+    }
+
+    private Deduplicator(Class<T> messageType, DedupFilter<K> filter, Function<? super T, ? extends K> key, ActorRef next) {
+        this.messageType = messageType;
+        this.key = key;
+        this.filter = filter;
+        this.next = next;
+    }
+
+    @Override
+    public Receive createReceive() {
+        return receiveBuilder()
+                .match(messageType, msg -> {
+                    if (filter.firstSeen(key.apply(msg))) {
+                        next.tell(msg, self());
+                    }
+                })
+                .build();
+    }
+}
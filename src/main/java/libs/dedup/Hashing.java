@@ -0,0 +1,37 @@
+package libs.dedup;
+
+/**
+ * Hash 64 bits des clés : {@code hashCode()} sur 32 bits donne trop de collisions au-delà de quelques
+ * dizaines de millions de clés.
+ */
+public final class Hashing {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashing() {
+    }
+
+    /**
+     * FNV-1a sur les caractères, suivi du mélange final de MurmurHash3.
+     */
+    public static long hash64(CharSequence value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Mélange final de MurmurHash3 : chaque bit d'entrée influence tous les bits de sortie.
+     */
+    public static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,144 @@
+package libs.dedup;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.ToLongFunction;
+
+/**
+ * Filtre de Bloom extensible (Almeida et al.) : quand le filtre courant atteint sa capacité, un nouveau filtre
+ * deux fois plus grand et deux fois plus strict est ajouté. La somme des taux de faux positifs reste sous
+ * {@code falsePositiveRate}.
+ *
+ * Si l'ajout dépasse {@code maxBytes}, les filtres les plus anciens sont abandonnés : leurs clés sont oubliées,
+ * comme dans une fenêtre glissante. Les filtres cessent alors de grossir et le taux n'est plus garanti qu'à
+ * peu près.
+ */
+final class ScalableBloomFilter<K> implements DedupFilter<K> {
+
+    private static final double TIGHTENING_RATIO = 0.5;
+    private static final int GROWTH_FACTOR = 2;
+    private static final double LN2 = Math.log(2);
+
+    private final double falsePositiveRate;
+    private final long maxBytes;
+    private final ToLongFunction<? super K> hasher;
+    private final Deque<Bloom> filters = new ArrayDeque<>();
+    private long bytes = 0;
+
+    ScalableBloomFilter(long initialCapacity, double falsePositiveRate, long maxBytes, ToLongFunction<? super K> hasher) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("initialCapacity must be >= 1, was " + initialCapacity);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in ]0, 1[, was " + falsePositiveRate);
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+        this.hasher = hasher;
+        final Bloom first = new Bloom(initialCapacity, falsePositiveRate * (1 - TIGHTENING_RATIO));
+        if (first.bytes() > maxBytes) {
+            throw new IllegalArgumentException("maxBytes " + maxBytes + " is too small for " + initialCapacity + " keys");
+        }
+        add(first);
+    }
+
+    @Override
+    public boolean firstSeen(K key) {
+        final long h1 = hasher.applyAsLong(key);
+        final long h2 = Hashing.mix(h1 + 0x9e3779b97f4a7c15L) | 1;
+        for (Bloom filter : filters) {
+            if (filter.mightContain(h1, h2)) {
+                return false;
+            }
+        }
+        Bloom current = filters.peekLast();
+        if (current.count >= current.capacity) {
+            current = grow(current);
+        }
+        current.put(h1, h2);
+        return true;
+    }
+
+    int filterCount() {
+        return filters.size();
+    }
+
+    @Override
+    public long memoryBytes() {
+        return bytes;
+    }
+
+    private Bloom grow(Bloom current) {
+        Bloom next = new Bloom(current.capacity * GROWTH_FACTOR, current.falsePositiveRate * TIGHTENING_RATIO);
+        if (next.bytes() > maxBytes / 2) {
+            // plafond atteint : on garde la taille actuelle et on fait tourner la fenêtre
+            next = new Bloom(current.capacity, current.falsePositiveRate);
+        }
+        while (!filters.isEmpty() && bytes + next.bytes() > maxBytes) {
+            bytes -= filters.removeFirst().bytes();
+        }
+        add(next);
+        return next;
+    }
+
+    private void add(Bloom filter) {
+        filters.addLast(filter);
+        bytes += filter.bytes();
+    }
+
+    @Override
+    public String toString() {
+        return "ScalableBloomFilter(" + filters.size() + " filters, " + bytes + " bytes, p=" + falsePositiveRate + ")";
+    }
+
+    /**
+     * Filtre de Bloom classique, {@code k} positions dérivées de deux hashs (Kirsch et Mitzenmacher).
+     */
+    private static final class Bloom {
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashCount;
+        private long count = 0;
+
+        private Bloom(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            final long optimalBits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            final long words = Math.max(1, (optimalBits + 63) / 64);
+            if (words > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Bloom filter too large for " + capacity + " keys");
+            }
+            this.bits = new long[(int) words];
+            this.bitCount = words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * LN2));
+        }
+
+        private long bytes() {
+            return bits.length * 8L;
+        }
+
+        private boolean mightContain(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < hashCount; i++) {
+                final long index = (combined & Long.MAX_VALUE) % bitCount;
+                if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                    return false;
+                }
+                combined += h2;
+            }
+            return true;
+        }
+
+        private void put(long h1, long h2) {
+            long combined = h1;
+            for (int i = 0; i < hashCount; i++) {
+                final long index = (combined & Long.MAX_VALUE) % bitCount;
+                bits[(int) (index >>> 6)] |= 1L << index;
+                combined += h2;
+            }
+            count++;
+        }
+    }
+}
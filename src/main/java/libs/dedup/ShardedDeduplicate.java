@@ -0,0 +1,218 @@
+package libs.dedup;
+
+import akka.NotUsed;
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.UniformFanInShape;
+import akka.stream.UniformFanOutShape;
+import akka.stream.javadsl.Broadcast;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.GraphDSL;
+import akka.stream.javadsl.Merge;
+import akka.stream.javadsl.ZipN;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+
+import java.util.ArrayList;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Déduplication répartie sur {@code shards} sous-flux asynchrones : chaque clé est toujours traitée par le même
+ * shard selon son hash, et chaque shard a son propre {@link DedupFilter}. La déduplication profite ainsi de
+ * plusieurs coeurs au lieu d'un seul acteur.
+ *
+ * Tester une clé coûte bien moins qu'une frontière asynchrone : les éléments voyagent donc par lots, formés
+ * seulement quand les shards ralentissent l'amont ({@code batch}), et chaque shard ne traite que ses éléments
+ * du lot. L'ordre est conservé pour une même clé. Sans {@code ordered}, chaque shard émet ses éléments retenus
+ * dès qu'il a fini ; avec, les lots sont recomposés dans leur ordre d'arrivée, au prix d'attendre le shard le
+ * plus lent de chaque lot.
+ */
+public final class ShardedDeduplicate {
+
+    public static final int DEFAULT_MAX_BATCH = 1024;
+
+    private ShardedDeduplicate() {
+    }
+
+    public static <T, K> Flow<T, T, NotUsed> create(int shards,
+                                                    Supplier<DedupFilter<K>> filterFactory,
+                                                    Function<? super T, ? extends K> key,
+                                                    boolean ordered) {
+        return create(shards, DEFAULT_MAX_BATCH, filterFactory, key, ordered);
+    }
+
+    public static <T, K> Flow<T, T, NotUsed> create(int shards,
+                                                    int maxBatch,
+                                                    Supplier<DedupFilter<K>> filterFactory,
+                                                    Function<? super T, ? extends K> key,
+                                                    boolean ordered) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be >= 1, was " + shards);
+        }
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("maxBatch must be >= 1, was " + maxBatch);
+        }
+        if (shards == 1) {
+            return Deduplicate.create(filterFactory, key);
+        }
+
+        final Flow<Batch<T>, java.util.List<T>, NotUsed> sharded = Flow.fromGraph(GraphDSL.create(builder -> {
+            final UniformFanOutShape<Batch<T>, Batch<T>> broadcast = builder.add(Broadcast.create(shards));
+            if (ordered) {
+                final UniformFanInShape<Batch<T>, java.util.List<Batch<T>>> zip = builder.add(ZipN.create(shards));
+                for (int i = 0; i < shards; i++) {
+                    builder.from(broadcast.out(i))
+                            .via(builder.add(Flow.fromGraph(new Shard<T, K>(i, filterFactory, key)).async()))
+                            .toInlet(zip.in(i));
+                }
+                // tous les shards ont marqué le même lot
+                final FlowShape<java.util.List<Batch<T>>, java.util.List<T>> kept =
+                        builder.add(Flow.<java.util.List<Batch<T>>>create().map(batches -> batches.get(0).kept()));
+                builder.from(zip.out()).toInlet(kept.in());
+                return FlowShape.of(broadcast.in(), kept.out());
+            }
+            final UniformFanInShape<java.util.List<T>, java.util.List<T>> merge = builder.add(Merge.create(shards));
+            for (int i = 0; i < shards; i++) {
+                final int index = i;
+                builder.from(broadcast.out(i))
+                        .via(builder.add(Flow.fromGraph(new Shard<T, K>(index, filterFactory, key))
+                                .map(batch -> batch.keptBy(index))
+                                .async()))
+                        .toInlet(merge.in(i));
+            }
+            return FlowShape.of(broadcast.in(), merge.out());
+        }));
+
+        return Flow.<T>create()
+                .batch(maxBatch, e -> Batch.<T>first(e), Batch::add)
+                .map(batch -> batch.assign(shards, key))
+                .via(sharded)
+                .mapConcat(kept -> kept);
+    }
+
+    static int shardOf(Object key, int shards) {
+        return (int) ((Hashing.mix(key.hashCode()) & Long.MAX_VALUE) % shards);
+    }
+
+    /**
+     * Un lot d'éléments, les positions de ceux de chaque shard et la décision de ce shard. Chaque shard ne
+     * parcourt et n'écrit que les cases de ses éléments ; la frontière asynchrone suivante publie ces écritures.
+     */
+    static final class Batch<T> {
+        private final ArrayList<T> elements = new ArrayList<>();
+        // owned[s] : positions dans le lot des éléments du shard s, dans l'ordre du lot
+        private int[][] owned;
+        private boolean[] firstSeen;
+
+        private static <T> Batch<T> first(T element) {
+            return new Batch<T>().add(element);
+        }
+
+        private Batch<T> add(T element) {
+            elements.add(element);
+            return this;
+        }
+
+        private Batch<T> assign(int shards, Function<? super T, ?> key) {
+            final int size = elements.size();
+            final int[] shard = new int[size];
+            final int[] counts = new int[shards];
+            for (int i = 0; i < size; i++) {
+                shard[i] = shardOf(key.apply(elements.get(i)), shards);
+                counts[shard[i]]++;
+            }
+            owned = new int[shards][];
+            for (int s = 0; s < shards; s++) {
+                owned[s] = new int[counts[s]];
+                counts[s] = 0;
+            }
+            for (int i = 0; i < size; i++) {
+                owned[shard[i]][counts[shard[i]]++] = i;
+            }
+            firstSeen = new boolean[size];
+            return this;
+        }
+
+        private java.util.List<T> kept() {
+            final java.util.List<T> kept = new ArrayList<>(elements.size());
+            for (int i = 0; i < firstSeen.length; i++) {
+                if (firstSeen[i]) {
+                    kept.add(elements.get(i));
+                }
+            }
+            return kept;
+        }
+
+        private java.util.List<T> keptBy(int owner) {
+            final int[] positions = owned[owner];
+            final java.util.List<T> kept = new ArrayList<>(positions.length);
+            for (int i : positions) {
+                if (firstSeen[i]) {
+                    kept.add(elements.get(i));
+                }
+            }
+            return kept;
+        }
+    }
+
+    /**
+     * Teste les éléments du lot qui appartiennent au shard {@code index}, dans l'ordre du lot.
+     */
+    private static final class Shard<T, K> extends GraphStage<FlowShape<Batch<T>, Batch<T>>> {
+
+        private final Inlet<Batch<T>> in = Inlet.create("Shard.in");
+        private final Outlet<Batch<T>> out = Outlet.create("Shard.out");
+        private final FlowShape<Batch<T>, Batch<T>> shape = FlowShape.of(in, out);
+
+        private final int index;
+        private final Supplier<DedupFilter<K>> filterFactory;
+        private final Function<? super T, ? extends K> key;
+
+        private Shard(int index, Supplier<DedupFilter<K>> filterFactory, Function<? super T, ? extends K> key) {
+            this.index = index;
+            this.filterFactory = filterFactory;
+            this.key = key;
+        }
+
+        @Override
+        public FlowShape<Batch<T>, Batch<T>> shape() {
+            return shape;
+        }
+
+        @Override
+        public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+            return new GraphStageLogic(shape) {
+
+                private final DedupFilter<K> filter = filterFactory.get();
+
+                {
+                    setHandler(in, new AbstractInHandler() {
+                        @Override
+                        public void onPush() {
+                            push(out, mark(grab(in)));
+                        }
+                    });
+
+                    setHandler(out, new AbstractOutHandler() {
+                        @Override
+                        public void onPull() {
+                            pull(in);
+                        }
+                    });
+                }
+
+                private Batch<T> mark(Batch<T> batch) {
+                    for (int i : batch.owned[index]) {
+                        batch.firstSeen[i] = filter.firstSeen(key.apply(batch.elements.get(i)));
+                    }
+                    return batch;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package libs.dedup;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Ensemble exact à adressage ouvert (sondage linéaire, suppression par décalage arrière), sans allocation par clé.
+ *
+ * Les clés sont aussi rangées dans un anneau par ordre d'insertion : la tête est la prochaine à expirer ou à
+ * être évincée quand {@code maxEntries} est atteint. En {@link DedupFilter.Expiry#AFTER_ACCESS}, une clé relue
+ * depuis son passage en tête obtient une seconde chance et repart en queue (algorithme CLOCK, approximation de LRU).
+ */
+final class WindowedSet<K> implements DedupFilter<K> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final boolean secondChance;
+    private final LongSupplier clock;
+
+    private final Object[] table;
+    private final boolean[] referenced;
+    private final int mask;
+
+    private final Object[] order;
+    private final long[] insertedAt;
+    private int head = 0;
+    private int size = 0;
+
+    WindowedSet(int maxEntries, Duration ttl, DedupFilter.Expiry expiry, LongSupplier clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be >= 1, was " + maxEntries);
+        }
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl must be >= 0, was " + ttl);
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.isZero() ? Long.MAX_VALUE : ttl.toNanos();
+        this.secondChance = expiry == DedupFilter.Expiry.AFTER_ACCESS;
+        this.clock = clock;
+
+        // Taux de remplissage <= 1/2 : les sondages restent courts
+        final int capacity = Integer.highestOneBit(Math.max(2, maxEntries - 1)) << 2;
+        this.table = new Object[capacity];
+        this.referenced = new boolean[capacity];
+        this.mask = capacity - 1;
+        this.order = new Object[maxEntries];
+        this.insertedAt = new long[maxEntries];
+    }
+
+    @Override
+    public boolean firstSeen(K key) {
+        final long now = clock.getAsLong();
+        expire(now);
+
+        final int slot = find(key);
+        if (slot >= 0) {
+            referenced[slot] = secondChance;
+            return false;
+        }
+        if (size == maxEntries) {
+            evictOne(now);
+        }
+        insert(key);
+        append(key, now);
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @Override
+    public long memoryBytes() {
+        // références compressées (4 octets), un booléen par case, un long par entrée de l'anneau
+        return table.length * 5L + order.length * 12L;
+    }
+
+    private void expire(long now) {
+        // une tête qui obtient une seconde chance repart en queue avec l'heure courante : la boucle se termine
+        while (size > 0 && now - insertedAt[head] >= ttlNanos) {
+            retireHead(now);
+        }
+    }
+
+    private void evictOne(long now) {
+        while (!retireHead(now)) {
+            // le bit de référence est remis à zéro à chaque tour, la boucle se termine
+        }
+    }
+
+    /**
+     * @return vrai si la tête a été supprimée, faux si elle a été replacée en queue
+     */
+    private boolean retireHead(long now) {
+        final Object key = order[head];
+        order[head] = null;
+        head = (head + 1) % maxEntries;
+        size--;
+
+        final int slot = find(key);
+        if (referenced[slot]) {
+            referenced[slot] = false;
+            append(key, now);
+            return false;
+        }
+        remove(slot);
+        return true;
+    }
+
+    private void append(Object key, long now) {
+        final int tail = (head + size) % maxEntries;
+        order[tail] = key;
+        insertedAt[tail] = now;
+        size++;
+    }
+
+    private int indexOf(Object key) {
+        return (int) Hashing.mix(key.hashCode()) & mask;
+    }
+
+    private int find(Object key) {
+        for (int i = indexOf(key); table[i] != null; i = (i + 1) & mask) {
+            if (table[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(Object key) {
+        int i = indexOf(key);
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = key;
+        referenced[i] = false;
+    }
+
+    private void remove(int slot) {
+        int hole = slot;
+        for (int i = (slot + 1) & mask; table[i] != null; i = (i + 1) & mask) {
+            final int ideal = indexOf(table[i]);
+            // la clé reste en place si sa case idéale est dans ]hole, i] (circulairement)
+            final boolean stays = hole <= i ? hole < ideal && ideal <= i : hole < ideal || ideal <= i;
+            if (!stays) {
+                table[hole] = table[i];
+                referenced[hole] = referenced[i];
+                hole = i;
+            }
+        }
+        table[hole] = null;
+        referenced[hole] = false;
+    }
+
+    @Override
+    public String toString() {
+        return "WindowedSet(" + size + "/" + maxEntries + ")";
+    }
+}
@@ -0,0 +1,71 @@
+package libs.dispatch;
+
+import java.time.Duration;
+
+/**
+ * Dernières observations et décisions d'un {@link SelfTuningDispatcher}, lisibles depuis n'importe quel thread.
+ */
+public final class DispatcherGauges {
+
+    private volatile int threads;
+    private volatile int throughput;
+    private volatile int queueDepth;
+    private volatile long queueLatencyNanos;
+    private volatile double blockingRatio;
+    private volatile long adjustments;
+
+    DispatcherGauges(int threads, int throughput) {
+        this.threads = threads;
+        this.throughput = throughput;
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    public int throughput() {
+        return throughput;
+    }
+
+    public int queueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * Attente moyenne d'une tâche dans la file de l'exécuteur, sur le dernier intervalle.
+     */
+    public Duration queueLatency() {
+        return Duration.ofNanos(queueLatencyNanos);
+    }
+
+    public double blockingRatio() {
+        return blockingRatio;
+    }
+
+    /**
+     * Nombre de changements de threads ou de throughput depuis le démarrage.
+     */
+    public long adjustments() {
+        return adjustments;
+    }
+
+    void observed(int queueDepth, long queueLatencyNanos, double blockingRatio) {
+        this.queueDepth = queueDepth;
+        this.queueLatencyNanos = queueLatencyNanos;
+        this.blockingRatio = blockingRatio;
+    }
+
+    void decided(int threads, int throughput) {
+        if (threads != this.threads || throughput != this.throughput) {
+            adjustments++;
+        }
+        this.threads = threads;
+        this.throughput = throughput;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DispatcherGauges[threads=%d, throughput=%d, queue=%d, queueLatency=%dus, blocking=%.2f]",
+                threads, throughput, queueDepth, queueLatency().toNanos() / 1000, blockingRatio);
+    }
+}
@@ -0,0 +1,102 @@
+package libs.dispatch;
+
+import akka.dispatch.Dispatcher;
+import akka.dispatch.ExecutorServiceFactory;
+import akka.dispatch.ExecutorServiceFactoryProvider;
+import akka.dispatch.MessageDispatcherConfigurator;
+import akka.dispatch.MonitorableThreadFactory;
+import akka.event.LoggingAdapter;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Dispatcher dont le nombre de threads et le throughput sont réajustés à chaque {@code tune-interval} d'après la
+ * profondeur de file, l'attente en file et la part bloquante observées (voir {@link TuningPolicy}).
+ * Les décisions sont exposées par {@link #gauges()} et tracées en DEBUG.
+ */
+public final class SelfTuningDispatcher extends Dispatcher {
+
+    private final TuningPolicy policy;
+    private final DispatcherGauges gauges;
+    private final LoggingAdapter log;
+    private final Pools pools;
+    private volatile int throughput;
+
+    SelfTuningDispatcher(MessageDispatcherConfigurator configurator,
+                         String id,
+                         int initialThroughput,
+                         Duration throughputDeadlineTime,
+                         Pools pools,
+                         FiniteDuration shutdownTimeout,
+                         TuningPolicy policy,
+                         LoggingAdapter log) {
+        super(configurator, id, initialThroughput, throughputDeadlineTime, pools, shutdownTimeout);
+        this.policy = policy;
+        this.pools = pools;
+        this.log = log;
+        this.throughput = initialThroughput;
+        this.gauges = new DispatcherGauges(pools.threads, initialThroughput);
+    }
+
+    /**
+     * Lu par chaque mailbox au début de son tour : un changement s'applique dès le tour suivant.
+     */
+    @Override
+    public int throughput() {
+        return throughput;
+    }
+
+    public DispatcherGauges gauges() {
+        return gauges;
+    }
+
+    void tune() {
+        final TunablePool pool = pools.current;
+        if (pool == null || pool.isShutdown()) {
+            return;
+        }
+        final double[] sampled = pool.drain();
+        final long queueLatency = (long) sampled[0];
+        final double blocking = sampled[1];
+        final int queueDepth = pool.getQueue().size();
+        gauges.observed(queueDepth, queueLatency, blocking);
+
+        final int threads = pool.getMaximumPoolSize();
+        final int nextThreads = policy.nextThreads(threads, pool.getActiveCount(), queueDepth, queueLatency, blocking);
+        final int nextThroughput = policy.nextThroughput(throughput, nextThreads, queueDepth, queueLatency);
+        if (nextThreads != threads || nextThroughput != throughput) {
+            log.debug("{}: threads -> {}, throughput -> {} ({})", id(), nextThreads, nextThroughput, gauges);
+        }
+        pool.resize(nextThreads);
+        pools.threads = nextThreads;
+        throughput = nextThroughput;
+        gauges.decided(nextThreads, nextThroughput);
+    }
+
+    /**
+     * Fournit un {@link TunablePool} à chaque (re)démarrage de l'exécuteur, à la dernière taille décidée, et garde
+     * une référence au pool courant.
+     */
+    static final class Pools implements ExecutorServiceFactoryProvider {
+        private final long keepAliveNanos;
+        private final int sampleEvery;
+        private volatile int threads;
+        private volatile TunablePool current;
+
+        Pools(int initialThreads, long keepAliveNanos, int sampleEvery) {
+            this.threads = initialThreads;
+            this.keepAliveNanos = keepAliveNanos;
+            this.sampleEvery = sampleEvery;
+        }
+
+        @Override
+        public ExecutorServiceFactory createExecutorServiceFactory(String id, ThreadFactory threadFactory) {
+            final ThreadFactory named = threadFactory instanceof MonitorableThreadFactory
+                    ? ((MonitorableThreadFactory) threadFactory).withName(((MonitorableThreadFactory) threadFactory).name() + "-" + id)
+                    : threadFactory;
+            return () -> current = new TunablePool(threads, keepAliveNanos, sampleEvery, named);
+        }
+    }
+}
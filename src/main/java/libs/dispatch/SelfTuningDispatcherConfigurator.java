@@ -0,0 +1,74 @@
+package libs.dispatch;
+
+import akka.dispatch.DispatcherPrerequisites;
+import akka.dispatch.ExecutionContexts;
+import akka.dispatch.MessageDispatcher;
+import akka.dispatch.MessageDispatcherConfigurator;
+import akka.event.Logging;
+import com.typesafe.config.Config;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configure un {@link SelfTuningDispatcher} ; {@code throughput} sert de valeur initiale.
+ *
+ * <pre>
+ * self-tuning-dispatcher {
+ *   type = "libs.dispatch.SelfTuningDispatcherConfigurator"
+ *   throughput = 5
+ *   self-tuning {
+ *     initial-threads = 8
+ *     min-threads = 2
+ *     max-threads = 64
+ *     min-throughput = 1
+ *     max-throughput = 100
+ *     target-queue-latency = 5ms
+ *     tune-interval = 1s
+ *     sample-every = 8
+ *     keep-alive = 60s
+ *   }
+ * }
+ * </pre>
+ */
+public final class SelfTuningDispatcherConfigurator extends MessageDispatcherConfigurator {
+
+    private final SelfTuningDispatcher instance;
+
+    public SelfTuningDispatcherConfigurator(Config config, DispatcherPrerequisites prerequisites) {
+        super(config, prerequisites);
+        final Config tuning = config.getConfig("self-tuning");
+        final TuningPolicy policy = new TuningPolicy(
+                tuning.getInt("min-threads"),
+                tuning.getInt("max-threads"),
+                tuning.getInt("min-throughput"),
+                tuning.getInt("max-throughput"),
+                tuning.getDuration("target-queue-latency").toNanos(),
+                Runtime.getRuntime().availableProcessors());
+        final String id = config.getString("id");
+        final SelfTuningDispatcher.Pools pools = new SelfTuningDispatcher.Pools(
+                policy.clampThreads(tuning.getInt("initial-threads")),
+                tuning.getDuration("keep-alive").toNanos(),
+                tuning.getInt("sample-every"));
+
+        this.instance = new SelfTuningDispatcher(
+                this,
+                id,
+                policy.clampThroughput(config.getInt("throughput")),
+                Duration.create(config.getDuration("throughput-deadline-time", TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS),
+                pools,
+                FiniteDuration.create(config.getDuration("shutdown-timeout", TimeUnit.MILLISECONDS), TimeUnit.MILLISECONDS),
+                policy,
+                Logging.getLogger(prerequisites.eventStream(), SelfTuningDispatcher.class));
+
+        final java.time.Duration interval = tuning.getDuration("tune-interval");
+        // exécuté sur le thread du scheduler : un pool saturé ne doit pas retarder son propre réglage
+        prerequisites.scheduler().schedule(interval, interval, instance::tune, ExecutionContexts.fromExecutor(Runnable::run));
+    }
+
+    @Override
+    public MessageDispatcher dispatcher() {
+        return instance;
+    }
+}
@@ -0,0 +1,95 @@
+package libs.dispatch;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool dont la taille peut changer à chaud. Une tâche sur {@code sampleEvery} est chronométrée : attente dans la
+ * file, durée d'exécution et temps CPU (d'où la part bloquante).
+ */
+final class TunablePool extends ThreadPoolExecutor {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final int sampleEvery;
+    private final boolean cpuTimeSupported = THREADS.isCurrentThreadCpuTimeSupported();
+    private int submitted = 0;
+
+    private final LongAdder samples = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder wallNanos = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+
+    TunablePool(int threads, long keepAliveNanos, int sampleEvery, ThreadFactory threadFactory) {
+        super(threads, threads, keepAliveNanos, TimeUnit.NANOSECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        this.sampleEvery = sampleEvery;
+        allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        // compteur non atomique : une course ne fait que décaler l'échantillonnage
+        if (submitted++ % sampleEvery == 0) {
+            super.execute(new Sampled(command, System.nanoTime()));
+        } else {
+            super.execute(command);
+        }
+    }
+
+    void resize(int threads) {
+        if (threads > getMaximumPoolSize()) {
+            setMaximumPoolSize(threads);
+            setCorePoolSize(threads);
+        } else if (threads < getMaximumPoolSize()) {
+            setCorePoolSize(threads);
+            setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * Moyennes depuis l'appel précédent : {@code [attente en file, part bloquante]}.
+     */
+    double[] drain() {
+        final long count = samples.sumThenReset();
+        final long queue = queueNanos.sumThenReset();
+        final long wall = wallNanos.sumThenReset();
+        final long cpu = cpuNanos.sumThenReset();
+        if (count == 0) {
+            return new double[]{0, 0};
+        }
+        final double blocking = !cpuTimeSupported || wall == 0 ? 0 : Math.max(0, Math.min(1, 1 - (double) cpu / wall));
+        return new double[]{(double) queue / count, blocking};
+    }
+
+    private final class Sampled implements Runnable {
+        private final Runnable task;
+        private final long submittedAt;
+
+        private Sampled(Runnable task, long submittedAt) {
+            this.task = task;
+            this.submittedAt = submittedAt;
+        }
+
+        @Override
+        public void run() {
+            final long start = System.nanoTime();
+            final long cpuStart = cpuTimeSupported ? THREADS.getCurrentThreadCpuTime() : 0;
+            try {
+                task.run();
+            } finally {
+                final long end = System.nanoTime();
+                samples.increment();
+                queueNanos.add(start - submittedAt);
+                wallNanos.add(end - start);
+                if (cpuTimeSupported) {
+                    cpuNanos.add(THREADS.getCurrentThreadCpuTime() - cpuStart);
+                }
+            }
+        }
+    }
+}
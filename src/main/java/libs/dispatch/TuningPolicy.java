@@ -0,0 +1,75 @@
+package libs.dispatch;
+
+/**
+ * Règles d'ajustement d'un {@link SelfTuningDispatcher}, sans état : testables sans acteur.
+ *
+ * Threads : cible {@code coeurs / (1 - part bloquante)} (un thread qui attend ne consomme pas de coeur), relevée
+ * quand les tâches attendent trop dans la file, réduite quand le pool est à moitié inactif. Un pas ne peut ni
+ * doubler ni diviser par deux le pool.
+ *
+ * Throughput (messages traités par acteur avant de rendre le thread) : divisé par deux quand l'attente dépasse
+ * la cible (les acteurs monopolisent les threads), doublé quand le travail s'accumule sans dégrader l'attente
+ * (moins de changements de contexte).
+ */
+final class TuningPolicy {
+
+    private static final double MIN_CPU_SHARE = 0.05;
+
+    private final int minThreads;
+    private final int maxThreads;
+    private final int minThroughput;
+    private final int maxThroughput;
+    private final long targetQueueLatencyNanos;
+    private final int cores;
+
+    TuningPolicy(int minThreads, int maxThreads, int minThroughput, int maxThroughput, long targetQueueLatencyNanos, int cores) {
+        if (minThreads < 1 || minThreads > maxThreads) {
+            throw new IllegalArgumentException("Expected 1 <= minThreads <= maxThreads");
+        }
+        if (minThroughput < 1 || minThroughput > maxThroughput) {
+            throw new IllegalArgumentException("Expected 1 <= minThroughput <= maxThroughput");
+        }
+        this.minThreads = minThreads;
+        this.maxThreads = maxThreads;
+        this.minThroughput = minThroughput;
+        this.maxThroughput = maxThroughput;
+        this.targetQueueLatencyNanos = targetQueueLatencyNanos;
+        this.cores = cores;
+    }
+
+    int minThreads() {
+        return minThreads;
+    }
+
+    int clampThreads(int threads) {
+        return Math.max(minThreads, Math.min(maxThreads, threads));
+    }
+
+    int clampThroughput(int throughput) {
+        return Math.max(minThroughput, Math.min(maxThroughput, throughput));
+    }
+
+    /**
+     * @param blockingRatio part du temps d'exécution passée hors CPU, entre 0 et 1
+     */
+    int nextThreads(int threads, int active, int queueDepth, long queueLatencyNanos, double blockingRatio) {
+        double ideal = cores / Math.max(MIN_CPU_SHARE, 1 - blockingRatio);
+        if (queueDepth > 0 && queueLatencyNanos > targetQueueLatencyNanos) {
+            ideal = Math.max(ideal, Math.max(threads + 1, threads * 1.5));
+        } else if (queueDepth == 0 && active < threads / 2) {
+            ideal = Math.min(ideal, Math.max(active + 1, threads * 0.75));
+        }
+        final int bounded = (int) Math.round(Math.max(threads / 2.0, Math.min(threads * 2.0, ideal)));
+        return clampThreads(bounded);
+    }
+
+    int nextThroughput(int throughput, int threads, int queueDepth, long queueLatencyNanos) {
+        if (queueLatencyNanos > targetQueueLatencyNanos) {
+            return clampThroughput(throughput / 2);
+        }
+        if (queueDepth > threads) {
+            return clampThroughput(throughput * 2);
+        }
+        return throughput;
+    }
+}
@@ -0,0 +1,91 @@
+package libs.dispatch;
+
+import akka.dispatch.DispatcherPrerequisites;
+import akka.dispatch.ExecutorServiceConfigurator;
+import akka.dispatch.ExecutorServiceFactory;
+import com.typesafe.config.Config;
+import io.vavr.control.Option;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exécuteur de dispatcher à un thread virtuel par tâche, pour les appels bloquants : des milliers d'opérations
+ * en attente ne coûtent que de la mémoire, pas un thread plateforme chacune.
+ *
+ * Le projet compile en Java 11 : les threads virtuels sont obtenus par réflexion quand la JVM les fournit
+ * (JDK 21+, ou JDK 19/20 avec {@code --enable-preview}). L'exécuteur est réellement construit pour le vérifier :
+ * en preview désactivée, l'API existe mais lève une exception. En cas d'échec le dispatcher retombe sur un pool
+ * élastique de {@code fallback-max-threads} threads plateforme, créés à la demande et libérés après
+ * {@code fallback-keep-alive}.
+ *
+ * <pre>
+ * virtual-thread-dispatcher {
+ *   type = Dispatcher
+ *   executor = "libs.dispatch.VirtualThreadExecutorConfigurator"
+ *   virtual-thread-executor {
+ *     fallback-max-threads = 256
+ *     fallback-keep-alive = 60s
+ *   }
+ * }
+ * </pre>
+ */
+public final class VirtualThreadExecutorConfigurator extends ExecutorServiceConfigurator {
+
+    private final int fallbackMaxThreads;
+    private final long fallbackKeepAliveNanos;
+
+    public VirtualThreadExecutorConfigurator(Config config, DispatcherPrerequisites prerequisites) {
+        super(config, prerequisites);
+        final Config executor = config.getConfig("virtual-thread-executor");
+        this.fallbackMaxThreads = executor.getInt("fallback-max-threads");
+        this.fallbackKeepAliveNanos = executor.getDuration("fallback-keep-alive").toNanos();
+    }
+
+    /**
+     * @return vrai si la JVM courante permet de créer des threads virtuels
+     */
+    public static boolean virtualThreadsAvailable() {
+        return virtualThreadPerTask("probe").peek(ExecutorService::shutdown).isDefined();
+    }
+
+    @Override
+    public ExecutorServiceFactory createExecutorServiceFactory(String id, ThreadFactory threadFactory) {
+        return () -> virtualThreadPerTask(id).getOrElse(() -> elasticPool(threadFactory));
+    }
+
+    /**
+     * @return vide si l'API est absente (JDK &lt; 19) ou inutilisable (preview désactivée en JDK 19/20)
+     */
+    private static Option<ExecutorService> virtualThreadPerTask(String id) {
+        try {
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            final Object builder = Class.forName("java.lang.Thread$Builder$OfVirtual")
+                    .getMethod("name", String.class, long.class)
+                    .invoke(Thread.class.getMethod("ofVirtual").invoke(null), id + "-", 0L);
+            final ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            // Un thread non démarré suffit à vérifier que la fabrique fonctionne
+            factory.newThread(() -> {
+            });
+            return Option.of((ExecutorService) Executors.class
+                    .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory));
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return Option.none();
+        }
+    }
+
+    private ExecutorService elasticPool(ThreadFactory threadFactory) {
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                fallbackMaxThreads, fallbackMaxThreads,
+                fallbackKeepAliveNanos, TimeUnit.NANOSECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,86 @@
+package libs.elastic;
+
+import akka.NotUsed;
+import akka.japi.Pair;
+import akka.stream.javadsl.Compression;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+
+import java.util.Optional;
+import java.util.zip.Deflater;
+
+/**
+ * Compression du corps des requêtes, annoncée par {@code Content-Encoding}.
+ *
+ * Le corps est découpé en tranches ({@link ByteString#slice} ne recopie pas) compressées au fil de l'envoi :
+ * seule la version compressée de la tranche en cours existe en plus du bulk. Chaque tranche termine un bloc
+ * deflate, d'où des tranches assez grandes pour ne pas dégrader le taux de compression.
+ */
+public enum BodyCompression {
+
+    NONE(null),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final String contentEncoding;
+
+    BodyCompression(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * {@code none}, {@code gzip} ou {@code deflate}.
+     */
+    public static BodyCompression of(String name) {
+        switch (name.toLowerCase()) {
+            case "none":
+                return NONE;
+            case "gzip":
+                return GZIP;
+            case "deflate":
+                return DEFLATE;
+            default:
+                throw new IllegalArgumentException("Unknown compression " + name + ", expected none, gzip or deflate");
+        }
+    }
+
+    /**
+     * Valeur de l'en-tête {@code Content-Encoding}, {@code null} sans compression.
+     */
+    public String contentEncoding() {
+        return contentEncoding;
+    }
+
+    public Flow<ByteString, ByteString, NotUsed> flow(int level) {
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("level must be within [0, 9] or -1, was " + level);
+        }
+        switch (this) {
+            case GZIP:
+                return Compression.gzip(level == Deflater.DEFAULT_COMPRESSION ? 6 : level);
+            case DEFLATE:
+                return Compression.deflate(level == Deflater.DEFAULT_COMPRESSION ? 6 : level, false);
+            default:
+                return Flow.create();
+        }
+    }
+
+    /**
+     * Corps à envoyer, en tranches d'au plus {@code chunkSize} octets avant compression.
+     */
+    public Source<ByteString, NotUsed> encode(ByteString body, int chunkSize, int level) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be >= 1, was " + chunkSize);
+        }
+        if (this == NONE) {
+            return Source.single(body);
+        }
+        return Source.unfold(0, from -> from >= body.size()
+                ? Optional.empty()
+                : Optional.of(Pair.create(from + chunkSize, body.slice(from, Math.min(body.size(), from + chunkSize)))))
+                .via(flow(level));
+    }
+}
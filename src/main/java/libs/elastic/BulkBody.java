@@ -0,0 +1,97 @@
+package libs.elastic;
+
+import akka.util.ByteString;
+import akka.util.ByteStringBuilder;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import libs.Json;
+import play.libs.ws.BodyWritable;
+import play.libs.ws.InMemoryBodyWritable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Construit le corps NDJSON d'une requête {@code _bulk} directement en octets.
+ *
+ * La ligne d'action étant identique pour tous les documents, elle est rendue une seule fois.
+ * Chaque document est écrit par un {@link JsonGenerator} dans un {@link ByteStringBuilder},
+ * sans passer par une {@code String} intermédiaire.
+ */
+public final class BulkBody {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private static final byte NEW_LINE = '\n';
+
+    private final ObjectMapper mapper;
+    private final ByteString actionLine;
+
+    private BulkBody(ObjectMapper mapper, ByteString actionLine) {
+        this.mapper = mapper;
+        this.actionLine = actionLine;
+    }
+
+    /**
+     * Action {@code {"index":{"_index":index,"_type":type}}} pour tous les documents, avec le mapper partagé de {@link Json}.
+     */
+    public static BulkBody index(String index, String type) {
+        return index(Json.defaultObjectMapper, index, type);
+    }
+
+    public static BulkBody index(ObjectMapper mapper, String index, String type) {
+        final ObjectNode metadata = mapper.createObjectNode();
+        metadata.put("_index", index);
+        metadata.put("_type", type);
+        final ObjectNode action = mapper.createObjectNode();
+        action.set("index", metadata);
+        return forAction(mapper, action);
+    }
+
+    public static BulkBody forAction(ObjectMapper mapper, JsonNode action) {
+        final ByteStringBuilder builder = ByteString.createBuilder();
+        write(mapper, builder, action);
+        return new BulkBody(mapper, builder.result());
+    }
+
+    public ByteString actionLine() {
+        return actionLine;
+    }
+
+    /**
+     * Une entrée du bulk : la ligne d'action pré-rendue suivie du document, chacune terminée par un saut de ligne.
+     */
+    public ByteString entry(JsonNode document) {
+        final ByteStringBuilder builder = ByteString.createBuilder();
+        builder.append(actionLine);
+        write(mapper, builder, document);
+        return builder.result();
+    }
+
+    /**
+     * Concatène des entrées déjà rendues. {@link ByteString#concat} ne recopie pas les octets.
+     */
+    public static ByteString concat(Iterable<ByteString> entries) {
+        ByteString body = ByteString.empty();
+        for (ByteString entry : entries) {
+            body = body.concat(entry);
+        }
+        return body;
+    }
+
+    public static BodyWritable<ByteString> writable(ByteString body) {
+        return new InMemoryBodyWritable(body, CONTENT_TYPE);
+    }
+
+    private static void write(ObjectMapper mapper, ByteStringBuilder builder, JsonNode node) {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(builder.asOutputStream(), JsonEncoding.UTF8)) {
+            mapper.writeTree(generator, node);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        builder.putByte(NEW_LINE);
+    }
+}
@@ -0,0 +1,160 @@
+package libs.elastic;
+
+import akka.stream.Materializer;
+import akka.util.ByteString;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import com.typesafe.config.ConfigUtil;
+import io.vavr.collection.List;
+import io.vavr.collection.Map;
+import play.libs.ws.SourceBodyWritable;
+import play.libs.ws.WSClient;
+import play.libs.ws.WSRequest;
+import play.libs.ws.WSResponse;
+import play.libs.ws.ahc.AhcWSClient;
+import play.libs.ws.ahc.StandaloneAhcWSClient;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+
+import static play.libs.ws.ahc.AhcWSClientConfigFactory.forConfig;
+
+/**
+ * Un client HTTP par serveur {@code _bulk}, chacun avec son pool de connexions et sa compression.
+ *
+ * Les réglages viennent de {@code default}, surchargés serveur par serveur dans {@code per-server."host:port"}.
+ * Le client AHC n'envoie pas de requêtes en pipeline sur une connexion : la concurrence vers un serveur se règle
+ * par la taille de son pool.
+ */
+public final class BulkClients implements AutoCloseable {
+
+    private final Map<String, Settings> settings;
+    private final Map<String, WSClient> clients;
+
+    private BulkClients(Map<String, Settings> settings, Map<String, WSClient> clients) {
+        this.settings = settings;
+        this.clients = clients;
+    }
+
+    /**
+     * @param config bloc contenant {@code default} et {@code per-server}
+     */
+    public static BulkClients fromConfig(List<String> servers, Config config, Materializer materializer) {
+        final ClassLoader classLoader = BulkClients.class.getClassLoader();
+        final Map<String, Settings> settings = servers.toMap(server -> server, server -> Settings.fromConfig(serverConfig(config, server)));
+        final Map<String, WSClient> clients = settings.mapValues(s -> new AhcWSClient(
+                StandaloneAhcWSClient.create(forConfig(s.toWsConfig().withFallback(ConfigFactory.load()), classLoader), materializer),
+                materializer));
+        return new BulkClients(settings, clients);
+    }
+
+    private static Config serverConfig(Config config, String server) {
+        final String path = ConfigUtil.joinPath("per-server", server);
+        return config.hasPath(path)
+                ? config.getConfig(path).withFallback(config.getConfig("default"))
+                : config.getConfig("default");
+    }
+
+    public Settings settings(String server) {
+        return settings.get(server).getOrElseThrow(() -> new IllegalArgumentException("Unknown server " + server));
+    }
+
+    /**
+     * Envoie un corps {@code _bulk} déjà rendu, compressé au fil de l'eau selon les réglages du serveur.
+     */
+    public CompletionStage<BulkResponse> post(String server, ByteString body) {
+        final Settings s = settings(server);
+        final WSRequest request = clients.get(server).get().url(String.format("http://%s/_bulk", server));
+        final CompletionStage<WSResponse> response = s.compression == BodyCompression.NONE
+                ? request.post(BulkBody.writable(body))
+                : request.addHeader("Content-Encoding", s.compression.contentEncoding())
+                        .post(new SourceBodyWritable(s.compression.encode(body, s.chunkSize, s.compressionLevel), BulkBody.CONTENT_TYPE));
+        return response.thenApply(BulkResponse::of);
+    }
+
+    @Override
+    public void close() {
+        clients.values().forEach(client -> {
+            try {
+                client.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Réglages HTTP d'un serveur.
+     */
+    public static final class Settings {
+        private final int maxConnections;
+        private final boolean keepAlive;
+        private final Duration idleTimeout;
+        private final Duration maxConnectionLifetime;
+        private final Duration requestTimeout;
+        private final BodyCompression compression;
+        private final int compressionLevel;
+        private final int chunkSize;
+
+        public Settings(int maxConnections, boolean keepAlive, Duration idleTimeout, Duration maxConnectionLifetime,
+                        Duration requestTimeout, BodyCompression compression, int compressionLevel, int chunkSize) {
+            if (maxConnections < 1 && maxConnections != -1) {
+                throw new IllegalArgumentException("maxConnections must be >= 1 or -1 (unbounded), was " + maxConnections);
+            }
+            this.maxConnections = maxConnections;
+            this.keepAlive = keepAlive;
+            this.idleTimeout = idleTimeout;
+            this.maxConnectionLifetime = maxConnectionLifetime;
+            this.requestTimeout = requestTimeout;
+            this.compression = compression;
+            this.compressionLevel = compressionLevel;
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * Lit {@code max-connections}, {@code keep-alive}, {@code idle-timeout}, {@code max-connection-lifetime}
+         * (0 pour illimitée), {@code request-timeout}, {@code compression}, {@code compression-level} et {@code chunk-size}.
+         */
+        public static Settings fromConfig(Config config) {
+            return new Settings(
+                    config.getInt("max-connections"),
+                    config.getBoolean("keep-alive"),
+                    config.getDuration("idle-timeout"),
+                    config.getDuration("max-connection-lifetime"),
+                    config.getDuration("request-timeout"),
+                    BodyCompression.of(config.getString("compression")),
+                    config.getInt("compression-level"),
+                    (int) config.getBytes("chunk-size").longValue());
+        }
+
+        public int maxConnections() {
+            return maxConnections;
+        }
+
+        public boolean keepAlive() {
+            return keepAlive;
+        }
+
+        public BodyCompression compression() {
+            return compression;
+        }
+
+        Config toWsConfig() {
+            final java.util.Map<String, Object> values = new java.util.HashMap<>();
+            values.put("play.ws.ahc.maxConnectionsPerHost", maxConnections);
+            values.put("play.ws.ahc.keepAlive", keepAlive);
+            values.put("play.ws.ahc.idleConnectionInPoolTimeout", idleTimeout.toMillis() + "ms");
+            values.put("play.ws.ahc.maxConnectionLifetime", maxConnectionLifetime.isZero() ? null : maxConnectionLifetime.toMillis() + "ms");
+            values.put("play.ws.timeout.request", requestTimeout.toMillis() + "ms");
+            return ConfigFactory.parseMap(values);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Settings(maxConnections=%d, keepAlive=%b, idleTimeout=%s, maxConnectionLifetime=%s, requestTimeout=%s, compression=%s)",
+                    maxConnections, keepAlive, idleTimeout, maxConnectionLifetime, requestTimeout, compression);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package libs.elastic;
+
+import akka.util.ByteString;
+import io.vavr.collection.List;
+
+/**
+ * Bilan d'un bulk une fois les rejeux terminés : documents indexés, documents abandonnés et nombre de rejeux.
+ */
+public final class BulkOutcome {
+
+    public static final BulkOutcome EMPTY = new BulkOutcome(0, List.empty(), 0);
+
+    private final int indexed;
+    private final List<Rejected> rejected;
+    private final int retries;
+
+    private BulkOutcome(int indexed, List<Rejected> rejected, int retries) {
+        this.indexed = indexed;
+        this.rejected = rejected;
+        this.retries = retries;
+    }
+
+    public int indexed() {
+        return indexed;
+    }
+
+    public List<Rejected> rejected() {
+        return rejected;
+    }
+
+    public int retries() {
+        return retries;
+    }
+
+    BulkOutcome plus(int indexed, List<Rejected> rejected) {
+        return new BulkOutcome(this.indexed + indexed, this.rejected.appendAll(rejected), retries);
+    }
+
+    BulkOutcome retried() {
+        return new BulkOutcome(indexed, rejected, retries + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "BulkOutcome(indexed=" + indexed + ", rejected=" + rejected.size() + ", retries=" + retries + ")";
+    }
+
+    /**
+     * Une entrée du bulk (ligne d'action + document) définitivement refusée.
+     */
+    public static final class Rejected {
+
+        private final ByteString entry;
+        private final int status;
+        private final String reason;
+
+        Rejected(ByteString entry, int status, String reason) {
+            this.entry = entry;
+            this.status = status;
+            this.reason = reason;
+        }
+
+        public ByteString entry() {
+            return entry;
+        }
+
+        public int status() {
+            return status;
+        }
+
+        public String reason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Rejected(status=" + status + ", reason=" + reason + ")";
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package libs.elastic;
+
+import akka.util.ByteString;
+import play.libs.ws.StandaloneWSResponse;
+
+/**
+ * Statut HTTP et corps brut d'une réponse {@code _bulk}.
+ */
+public final class BulkResponse {
+
+    private final int status;
+    private final ByteString body;
+
+    public BulkResponse(int status, ByteString body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    public static BulkResponse of(StandaloneWSResponse response) {
+        return new BulkResponse(response.getStatus(), response.getBodyAsBytes());
+    }
+
+    public int status() {
+        return status;
+    }
+
+    public ByteString body() {
+        return body;
+    }
+}
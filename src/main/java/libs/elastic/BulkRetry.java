@@ -0,0 +1,204 @@
+package libs.elastic;
+
+import akka.actor.Scheduler;
+import akka.pattern.PatternsCS;
+import akka.util.ByteString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.typesafe.config.Config;
+import io.vavr.collection.List;
+import libs.Json;
+import scala.concurrent.ExecutionContext;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Envoi d'un bulk avec lecture de la réponse item par item.
+ *
+ * Seuls les items refusés de façon transitoire (429, 5xx, erreur réseau) sont renvoyés, après un backoff
+ * exponentiel avec jitter, dans la limite de {@code maxRetries}. Les autres refus, et les items encore en
+ * échec une fois le budget épuisé, sont remontés dans {@link BulkOutcome#rejected()}.
+ *
+ * Tant que des 429 arrivent, un délai partagé par tous les envois (y compris les nouveaux bulks) double ;
+ * il est divisé par deux à chaque bulk accepté sans rejeu.
+ */
+public final class BulkRetry {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int TRANSPORT_ERROR = 0;
+
+    private final int maxRetries;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+    private final double randomFactor;
+    private final Scheduler scheduler;
+    private final ExecutionContext ec;
+    private final AtomicLong throttleNanos = new AtomicLong();
+
+    public BulkRetry(int maxRetries, Duration minBackoff, Duration maxBackoff, double randomFactor,
+                     Scheduler scheduler, ExecutionContext ec) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries must be >= 0, was " + maxRetries);
+        }
+        if (minBackoff.isNegative() || minBackoff.isZero() || maxBackoff.compareTo(minBackoff) < 0) {
+            throw new IllegalArgumentException("Expected 0 < minBackoff <= maxBackoff");
+        }
+        this.maxRetries = maxRetries;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+        this.randomFactor = randomFactor;
+        this.scheduler = scheduler;
+        this.ec = ec;
+    }
+
+    /**
+     * Lit {@code max-retries}, {@code min-backoff}, {@code max-backoff} et {@code random-factor}.
+     */
+    public static BulkRetry fromConfig(Config config, Scheduler scheduler, ExecutionContext ec) {
+        return new BulkRetry(
+                config.getInt("max-retries"),
+                config.getDuration("min-backoff"),
+                config.getDuration("max-backoff"),
+                config.getDouble("random-factor"),
+                scheduler,
+                ec);
+    }
+
+    /**
+     * Délai actuellement appliqué avant chaque envoi à cause des 429.
+     */
+    public Duration throttle() {
+        return Duration.ofNanos(throttleNanos.get());
+    }
+
+    public CompletionStage<BulkOutcome> send(List<ByteString> entries, Function<ByteString, CompletionStage<BulkResponse>> post) {
+        return attempt(entries, post, 0, BulkOutcome.EMPTY);
+    }
+
+    private CompletionStage<BulkOutcome> attempt(List<ByteString> entries,
+                                                 Function<ByteString, CompletionStage<BulkResponse>> post,
+                                                 int attempt,
+                                                 BulkOutcome outcome) {
+        final Duration delay = attempt == 0 ? throttle() : backoff(attempt).plus(throttle());
+        final CompletionStage<BulkResponse> response = delay.isZero()
+                ? post.apply(BulkBody.concat(entries))
+                : PatternsCS.after(delay, scheduler, ec, () -> post.apply(BulkBody.concat(entries)));
+
+        return response
+                .handle((r, error) -> error == null ? classify(entries, r) : Classified.transportError(entries, error))
+                .thenCompose(classified -> {
+                    if (classified.throttled) {
+                        slowDown();
+                    } else if (classified.retriable.isEmpty()) {
+                        speedUp();
+                    }
+                    final BulkOutcome next = outcome.plus(classified.indexed, classified.rejected);
+                    if (classified.retriable.isEmpty()) {
+                        return CompletableFuture.completedFuture(next);
+                    }
+                    if (attempt >= maxRetries) {
+                        return CompletableFuture.completedFuture(next.plus(0, classified.retriable
+                                .map(r -> new BulkOutcome.Rejected(r.entry(), r.status(), "retry budget exhausted: " + r.reason()))));
+                    }
+                    return attempt(classified.retriable.map(BulkOutcome.Rejected::entry), post, attempt + 1, next.retried());
+                });
+    }
+
+    private Duration backoff(int attempt) {
+        final double exponential = minBackoff.toNanos() * Math.pow(2, attempt - 1);
+        final double capped = Math.min(maxBackoff.toNanos(), exponential);
+        final double jitter = 1 + ThreadLocalRandom.current().nextDouble() * randomFactor;
+        return Duration.ofNanos((long) (capped * jitter));
+    }
+
+    private void slowDown() {
+        throttleNanos.updateAndGet(current -> Math.min(maxBackoff.toNanos(), Math.max(minBackoff.toNanos(), current * 2)));
+    }
+
+    private void speedUp() {
+        throttleNanos.updateAndGet(current -> current / 2 < minBackoff.toNanos() / 2 ? 0 : current / 2);
+    }
+
+    private static boolean isRetriable(int status) {
+        return status == TOO_MANY_REQUESTS || status >= 500 || status == TRANSPORT_ERROR;
+    }
+
+    private static Classified classify(List<ByteString> entries, BulkResponse response) {
+        final int status = response.status();
+        if (isRetriable(status)) {
+            return Classified.all(entries, status, "HTTP " + status, true);
+        }
+        if (status >= 300) {
+            return Classified.all(entries, status, response.body().utf8String(), false);
+        }
+
+        // Corps vide, tronqué ou qui n'est pas du JSON (page d'erreur d'un proxy) : traité comme une erreur réseau
+        final JsonNode json;
+        try {
+            json = Json.parse(response.body());
+        } catch (RuntimeException e) {
+            return Classified.transportError(entries, e);
+        }
+        if (json == null || !json.isObject()) {
+            return Classified.transportError(entries, new IllegalStateException(
+                    "Unreadable bulk response: " + response.body().take(200).utf8String()));
+        }
+        if (!json.path("errors").asBoolean(false)) {
+            return new Classified(entries.size(), List.empty(), List.empty(), false);
+        }
+
+        int indexed = 0;
+        boolean throttled = false;
+        List<BulkOutcome.Rejected> retriable = List.empty();
+        List<BulkOutcome.Rejected> rejected = List.empty();
+        final Iterator<JsonNode> items = json.path("items").elements();
+        for (ByteString entry : entries) {
+            final Iterator<JsonNode> actions = items.hasNext() ? items.next().elements() : null;
+            if (actions == null || !actions.hasNext()) {
+                rejected = rejected.prepend(new BulkOutcome.Rejected(entry, status, "missing item in response"));
+                continue;
+            }
+            final JsonNode item = actions.next();
+            final int itemStatus = item.path("status").asInt();
+            if (isRetriable(itemStatus)) {
+                throttled |= itemStatus == TOO_MANY_REQUESTS;
+                retriable = retriable.prepend(new BulkOutcome.Rejected(entry, itemStatus, item.path("error").toString()));
+            } else if (itemStatus >= 300) {
+                rejected = rejected.prepend(new BulkOutcome.Rejected(entry, itemStatus, item.path("error").toString()));
+            } else {
+                indexed++;
+            }
+        }
+        return new Classified(indexed, retriable.reverse(), rejected.reverse(), throttled);
+    }
+
+    private static final class Classified {
+        private final int indexed;
+        private final List<BulkOutcome.Rejected> retriable;
+        private final List<BulkOutcome.Rejected> rejected;
+        private final boolean throttled;
+
+        private Classified(int indexed, List<BulkOutcome.Rejected> retriable, List<BulkOutcome.Rejected> rejected, boolean throttled) {
+            this.indexed = indexed;
+            this.retriable = retriable;
+            this.rejected = rejected;
+            this.throttled = throttled;
+        }
+
+        private static Classified all(List<ByteString> entries, int status, String reason, boolean retriable) {
+            final List<BulkOutcome.Rejected> all = entries.map(e -> new BulkOutcome.Rejected(e, status, reason));
+            return retriable
+                    ? new Classified(0, all, List.empty(), status == TOO_MANY_REQUESTS)
+                    : new Classified(0, List.empty(), all, false);
+        }
+
+        private static Classified transportError(List<ByteString> entries, Throwable error) {
+            return all(entries, TRANSPORT_ERROR, error.toString(), true);
+        }
+    }
+}
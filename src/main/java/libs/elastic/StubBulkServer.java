@@ -0,0 +1,330 @@
+package libs.elastic;
+
+import akka.actor.Scheduler;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.Config;
+import libs.Json;
+import scala.concurrent.ExecutionContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Faux serveur {@code _bulk} en mémoire pour les tests et les benchmarks : compte les documents sans rien indexer.
+ *
+ * Chaque instance injecte sa propre latence (fixe, uniforme ou exponentielle), une part de requêtes refusées en 429
+ * et une part d'items en échec dans des réponses par ailleurs acceptées. Le tirage est fait avec une graine :
+ * une même suite de requêtes donne les mêmes réponses. La latence est appliquée par le scheduler Akka, sans bloquer
+ * de thread ; les corps gzip ou deflate sont décompressés.
+ */
+public final class StubBulkServer implements AutoCloseable {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final byte NEW_LINE = '\n';
+
+    private final Settings settings;
+    private final Scheduler scheduler;
+    private final ExecutionContext ec;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SplittableRandom random;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong documents = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+    private final AtomicLong failedItems = new AtomicLong();
+
+    private StubBulkServer(Settings settings, int port, Scheduler scheduler, ExecutionContext ec) throws IOException {
+        this.settings = settings;
+        this.scheduler = scheduler;
+        this.ec = ec;
+        this.random = new SplittableRandom(settings.seed);
+        this.executor = Executors.newFixedThreadPool(settings.threads);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.createContext("/_bulk", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Démarre un serveur sur un port libre.
+     */
+    public static StubBulkServer start(Settings settings, Scheduler scheduler, ExecutionContext ec) {
+        return start(settings, 0, scheduler, ec);
+    }
+
+    public static StubBulkServer start(Settings settings, int port, Scheduler scheduler, ExecutionContext ec) {
+        try {
+            return new StubBulkServer(settings, port, scheduler, ec);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * {@code host:port}, au format de {@code vikings.servers}.
+     */
+    public String address() {
+        return "localhost:" + server.getAddress().getPort();
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    /**
+     * Documents acceptés (statut 201), hors items en échec et requêtes refusées.
+     */
+    public long documents() {
+        return documents.get();
+    }
+
+    public long rejectedRequests() {
+        return rejectedRequests.get();
+    }
+
+    public long failedItems() {
+        return failedItems.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        final byte[] body;
+        try (InputStream in = decoded(exchange)) {
+            body = in.readAllBytes();
+        }
+
+        final int status;
+        final byte[] response;
+        final Duration delay;
+        // Tirages sous verrou : l'ordre des requêtes détermine seul la suite des réponses
+        synchronized (random) {
+            delay = settings.latency.next(random);
+            if (random.nextDouble() < settings.rejectRate) {
+                status = TOO_MANY_REQUESTS;
+                response = rejection();
+                rejectedRequests.incrementAndGet();
+            } else {
+                status = 200;
+                response = items(countDocuments(body));
+            }
+        }
+
+        if (delay.isZero()) {
+            respond(exchange, status, response);
+        } else {
+            scheduler.scheduleOnce(delay, () -> respond(exchange, status, response), ec);
+        }
+    }
+
+    private static InputStream decoded(HttpExchange exchange) throws IOException {
+        final String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        if ("gzip".equalsIgnoreCase(encoding)) {
+            return new GZIPInputStream(exchange.getRequestBody());
+        }
+        if ("deflate".equalsIgnoreCase(encoding)) {
+            return new InflaterInputStream(exchange.getRequestBody());
+        }
+        return exchange.getRequestBody();
+    }
+
+    /**
+     * Une ligne d'action suivie d'une ligne de document par entrée.
+     */
+    private static int countDocuments(byte[] body) {
+        int lines = 0;
+        for (byte b : body) {
+            if (b == NEW_LINE) {
+                lines++;
+            }
+        }
+        if (body.length > 0 && body[body.length - 1] != NEW_LINE) {
+            lines++;
+        }
+        return lines / 2;
+    }
+
+    private byte[] items(int count) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(32 + count * 32);
+        int failed = 0;
+        try (JsonGenerator generator = Json.defaultObjectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            final boolean[] failures = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                failures[i] = random.nextDouble() < settings.itemFailureRate;
+                failed += failures[i] ? 1 : 0;
+            }
+            generator.writeStartObject();
+            generator.writeNumberField("took", 1);
+            generator.writeBooleanField("errors", failed > 0);
+            generator.writeArrayFieldStart("items");
+            for (int i = 0; i < count; i++) {
+                generator.writeStartObject();
+                generator.writeObjectFieldStart("index");
+                if (failures[i]) {
+                    generator.writeNumberField("status", settings.itemFailureStatus);
+                    generator.writeObjectFieldStart("error");
+                    generator.writeStringField("type", settings.itemFailureStatus == TOO_MANY_REQUESTS
+                            ? "es_rejected_execution_exception" : "mapper_parsing_exception");
+                    generator.writeEndObject();
+                } else {
+                    generator.writeNumberField("status", 201);
+                }
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        documents.addAndGet(count - failed);
+        failedItems.addAndGet(failed);
+        return out.toByteArray();
+    }
+
+    private static byte[] rejection() {
+        return Json.toByteString(Json.newObject().put("status", TOO_MANY_REQUESTS)).toArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] response) {
+        try {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, response.length);
+            exchange.getResponseBody().write(response);
+        } catch (IOException e) {
+            // client parti entre-temps
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Tirage de la latence de chaque réponse.
+     */
+    @FunctionalInterface
+    public interface Latency {
+
+        Duration next(SplittableRandom random);
+
+        static Latency none() {
+            return random -> Duration.ZERO;
+        }
+
+        static Latency fixed(Duration latency) {
+            return random -> latency;
+        }
+
+        static Latency uniform(Duration min, Duration max) {
+            if (max.compareTo(min) < 0) {
+                throw new IllegalArgumentException("Expected min <= max");
+            }
+            return random -> min.plusNanos((long) (random.nextDouble() * (max.toNanos() - min.toNanos())));
+        }
+
+        /**
+         * Loi exponentielle de moyenne {@code mean} : surtout des réponses rapides et une longue traîne.
+         */
+        static Latency exponential(Duration mean) {
+            return random -> Duration.ofNanos((long) (-Math.log(1 - random.nextDouble()) * mean.toNanos()));
+        }
+
+        /**
+         * {@code distribution} : {@code none}, {@code fixed} ({@code mean}), {@code uniform} ({@code min}, {@code max})
+         * ou {@code exponential} ({@code mean}).
+         */
+        static Latency fromConfig(Config config) {
+            switch (config.getString("distribution")) {
+                case "none":
+                    return none();
+                case "fixed":
+                    return fixed(config.getDuration("mean"));
+                case "uniform":
+                    return uniform(config.getDuration("min"), config.getDuration("max"));
+                case "exponential":
+                    return exponential(config.getDuration("mean"));
+                default:
+                    throw new IllegalArgumentException("Unknown latency distribution " + config.getString("distribution"));
+            }
+        }
+    }
+
+    public static final class Settings {
+        private final Latency latency;
+        private final double rejectRate;
+        private final double itemFailureRate;
+        private final int itemFailureStatus;
+        private final long seed;
+        private final int threads;
+
+        public Settings(Latency latency, double rejectRate, double itemFailureRate, int itemFailureStatus, long seed, int threads) {
+            if (rejectRate < 0 || rejectRate > 1 || itemFailureRate < 0 || itemFailureRate > 1) {
+                throw new IllegalArgumentException("Rates must be within [0, 1]");
+            }
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be >= 1, was " + threads);
+            }
+            this.latency = latency;
+            this.rejectRate = rejectRate;
+            this.itemFailureRate = itemFailureRate;
+            this.itemFailureStatus = itemFailureStatus;
+            this.seed = seed;
+            this.threads = threads;
+        }
+
+        /**
+         * Accepte tout, immédiatement.
+         */
+        public static Settings acceptAll() {
+            return new Settings(Latency.none(), 0, 0, TOO_MANY_REQUESTS, 0, 4);
+        }
+
+        /**
+         * Lit {@code latency}, {@code reject-rate}, {@code item-failure-rate}, {@code item-failure-status},
+         * {@code seed} et {@code threads}.
+         */
+        public static Settings fromConfig(Config config) {
+            return new Settings(
+                    Latency.fromConfig(config.getConfig("latency")),
+                    config.getDouble("reject-rate"),
+                    config.getDouble("item-failure-rate"),
+                    config.getInt("item-failure-status"),
+                    config.getLong("seed"),
+                    config.getInt("threads"));
+        }
+
+        public Settings withLatency(Latency latency) {
+            return new Settings(latency, rejectRate, itemFailureRate, itemFailureStatus, seed, threads);
+        }
+
+        public Settings withRejectRate(double rejectRate) {
+            return new Settings(latency, rejectRate, itemFailureRate, itemFailureStatus, seed, threads);
+        }
+
+        public Settings withItemFailures(double itemFailureRate, int itemFailureStatus) {
+            return new Settings(latency, rejectRate, itemFailureRate, itemFailureStatus, seed, threads);
+        }
+
+        public Settings withSeed(long seed) {
+            return new Settings(latency, rejectRate, itemFailureRate, itemFailureStatus, seed, threads);
+        }
+    }
+}
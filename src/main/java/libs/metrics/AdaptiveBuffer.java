@@ -0,0 +1,172 @@
+package libs.metrics;
+
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+import akka.stream.stage.TimerGraphStageLogic;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * {@link MeteredBuffer} dont la capacité est revue à chaque fenêtre selon {@link BufferSizing}.
+ *
+ * Seules les transitions (buffer plein, aval en attente sur un buffer vide) sont chronométrées, pas chaque élément.
+ * Une capacité réduite en dessous du remplissage courant arrête simplement de tirer l'amont le temps de vider.
+ */
+final class AdaptiveBuffer<T> extends GraphStage<FlowShape<T, T>> {
+
+    private static final String TUNE_TIMER = "tune";
+
+    private final Inlet<T> in = Inlet.create("AdaptiveBuffer.in");
+    private final Outlet<T> out = Outlet.create("AdaptiveBuffer.out");
+    private final FlowShape<T, T> shape = FlowShape.of(in, out);
+
+    private final StageMetrics metrics;
+    private final BufferSizing sizing;
+    private final int sampleEvery;
+
+    AdaptiveBuffer(StageMetrics metrics, BufferSizing sizing, int sampleEvery) {
+        this.metrics = metrics;
+        this.sizing = sizing;
+        this.sampleEvery = sampleEvery;
+    }
+
+    @Override
+    public FlowShape<T, T> shape() {
+        return shape;
+    }
+
+    @Override
+    public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+        return new TimerGraphStageLogic(shape) {
+
+            private final Sampler sampler = new Sampler(sampleEvery);
+            private final Deque<T> buffer = new ArrayDeque<>();
+            private int capacity = sizing.initial();
+            private int highWater = 0;
+
+            private long windowStart;
+            private long fullSince = -1;
+            private long fullNanos = 0;
+            private long starvedSince = -1;
+            private long starvedNanos = 0;
+
+            {
+                setHandler(in, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        metrics.onElement();
+                        final T element = grab(in);
+                        if (isAvailable(out) && buffer.isEmpty()) {
+                            push(out, element);
+                            endStarvation();
+                        } else {
+                            buffer.add(element);
+                            highWater = Math.max(highWater, buffer.size());
+                        }
+                        if (sampler.next()) {
+                            metrics.recordBufferFill(buffer.size(), capacity);
+                        }
+                        if (buffer.size() < capacity) {
+                            pull(in);
+                        } else {
+                            fullSince = System.nanoTime();
+                        }
+                    }
+
+                    @Override
+                    public void onUpstreamFinish() {
+                        if (buffer.isEmpty()) {
+                            completeStage();
+                        }
+                    }
+                });
+
+                setHandler(out, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        if (buffer.isEmpty()) {
+                            if (!isClosed(in)) {
+                                starvedSince = System.nanoTime();
+                            }
+                        } else {
+                            push(out, buffer.poll());
+                        }
+                        if (isClosed(in)) {
+                            if (buffer.isEmpty()) {
+                                completeStage();
+                            }
+                        } else {
+                            pullIfRoom();
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void preStart() {
+                windowStart = System.nanoTime();
+                metrics.recordBufferFill(0, capacity);
+                schedulePeriodically(TUNE_TIMER, sizing.window());
+                pull(in);
+            }
+
+            @Override
+            public void onTimer(Object timerKey) {
+                final long now = System.nanoTime();
+                if (fullSince >= 0) {
+                    fullNanos += now - fullSince;
+                    fullSince = now;
+                }
+                if (starvedSince >= 0) {
+                    starvedNanos += now - starvedSince;
+                    starvedSince = now;
+                }
+                final double elapsed = Math.max(1, now - windowStart);
+                final int next = sizing.next(capacity, fullNanos / elapsed, starvedNanos / elapsed, highWater);
+                if (next != capacity) {
+                    capacity = next;
+                    metrics.recordBufferFill(buffer.size(), capacity);
+                }
+                windowStart = now;
+                fullNanos = 0;
+                starvedNanos = 0;
+                highWater = buffer.size();
+                if (!isClosed(in)) {
+                    pullIfRoom();
+                    if (fullSince < 0 && !hasBeenPulled(in)) {
+                        fullSince = now;
+                    }
+                }
+            }
+
+            private void pullIfRoom() {
+                if (!hasBeenPulled(in) && buffer.size() < capacity) {
+                    if (fullSince >= 0) {
+                        fullNanos += System.nanoTime() - fullSince;
+                        fullSince = -1;
+                    }
+                    pull(in);
+                }
+            }
+
+            private void endStarvation() {
+                if (starvedSince >= 0) {
+                    starvedNanos += System.nanoTime() - starvedSince;
+                    starvedSince = -1;
+                }
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveBuffer(" + sizing + ")";
+    }
+}
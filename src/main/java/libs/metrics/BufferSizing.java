@@ -0,0 +1,96 @@
+package libs.metrics;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+/**
+ * Bornes et règles de redimensionnement d'un buffer adaptatif ({@link Instrumentation#adaptiveBuffer}).
+ *
+ * À chaque fenêtre, le buffer compare le temps passé plein (l'amont est freiné) et le temps passé vide alors que
+ * l'aval attendait (famine) :
+ * - les deux à la fois : producteur et consommateur alternent leurs pics, la capacité double pour les absorber ;
+ * - plein la majeure partie du temps : le consommateur est durablement plus lent, un buffer plus grand n'ajoute que
+ *   de la latence et la capacité est divisée par deux ;
+ * - jamais plein et peu rempli : la capacité descend vers le double du remplissage maximal observé.
+ */
+public final class BufferSizing {
+
+    static final double STALL_THRESHOLD = 0.05;
+    static final double SATURATED_THRESHOLD = 0.5;
+
+    private final int min;
+    private final int max;
+    private final int initial;
+    private final Duration window;
+
+    public BufferSizing(int min, int max, int initial, Duration window) {
+        if (min < 1 || min > max) {
+            throw new IllegalArgumentException("Expected 1 <= min <= max");
+        }
+        if (initial < min || initial > max) {
+            throw new IllegalArgumentException("initial must be within [" + min + ", " + max + "], was " + initial);
+        }
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window must be > 0, was " + window);
+        }
+        this.min = min;
+        this.max = max;
+        this.initial = initial;
+        this.window = window;
+    }
+
+    /**
+     * Lit {@code min}, {@code max}, {@code initial} et {@code window}.
+     */
+    public static BufferSizing fromConfig(Config config) {
+        return new BufferSizing(
+                config.getInt("min"),
+                config.getInt("max"),
+                config.getInt("initial"),
+                config.getDuration("window"));
+    }
+
+    public int min() {
+        return min;
+    }
+
+    public int max() {
+        return max;
+    }
+
+    public int initial() {
+        return initial;
+    }
+
+    public Duration window() {
+        return window;
+    }
+
+    /**
+     * @param fullRatio    part de la fenêtre passée buffer plein, entre 0 et 1
+     * @param starvedRatio part de la fenêtre où l'aval attendait sur un buffer vide, entre 0 et 1
+     * @param highWater    remplissage maximal observé pendant la fenêtre
+     */
+    int next(int capacity, double fullRatio, double starvedRatio, int highWater) {
+        if (fullRatio > STALL_THRESHOLD && starvedRatio > STALL_THRESHOLD) {
+            return clamp(capacity * 2);
+        }
+        if (fullRatio > SATURATED_THRESHOLD) {
+            return clamp(capacity / 2);
+        }
+        if (fullRatio == 0 && highWater < capacity / 4) {
+            return clamp(Math.max(highWater * 2, capacity / 2));
+        }
+        return capacity;
+    }
+
+    private int clamp(int capacity) {
+        return Math.max(min, Math.min(max, capacity));
+    }
+
+    @Override
+    public String toString() {
+        return "BufferSizing(" + min + ".." + max + ", initial=" + initial + ", window=" + window + ")";
+    }
+}
@@ -0,0 +1,38 @@
+package libs.metrics;
+
+import akka.actor.Cancellable;
+import akka.actor.Scheduler;
+import io.vavr.collection.List;
+import scala.concurrent.ExecutionContext;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Registre en mémoire : compteurs et histogrammes HdrHistogram, lus par intervalles avec {@link #snapshot()}.
+ */
+public final class HdrMetricsRegistry implements MetricsRegistry {
+
+    private final ConcurrentMap<String, HdrStageMetrics> stages = new ConcurrentHashMap<>();
+
+    @Override
+    public StageMetrics stage(String name) {
+        return stages.computeIfAbsent(name, HdrStageMetrics::new);
+    }
+
+    /**
+     * Mesures de chaque stage depuis l'appel précédent.
+     */
+    public List<StageSnapshot> snapshot() {
+        return List.ofAll(stages.values()).map(HdrStageMetrics::snapshot).sortBy(StageSnapshot::name);
+    }
+
+    /**
+     * Transmet périodiquement un snapshot à {@code reporter} (typiquement un log), au lieu de tracer chaque élément.
+     */
+    public Cancellable report(Duration interval, Scheduler scheduler, ExecutionContext ec, Consumer<StageSnapshot> reporter) {
+        return scheduler.schedule(interval, interval, () -> snapshot().forEach(reporter), ec);
+    }
+}
@@ -0,0 +1,72 @@
+package libs.metrics;
+
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+final class HdrStageMetrics implements StageMetrics {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final String name;
+    private final LongAdder elements = new LongAdder();
+    private final Recorder latency = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder upstreamWait = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder downstreamWait = new Recorder(SIGNIFICANT_DIGITS);
+    private final Recorder bufferFill = new Recorder(SIGNIFICANT_DIGITS);
+    private final AtomicInteger bufferCapacity = new AtomicInteger();
+    private long lastElements = 0;
+    private long lastSnapshotNanos = System.nanoTime();
+
+    HdrStageMetrics(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public void onElement() {
+        elements.increment();
+    }
+
+    @Override
+    public void recordLatency(long nanos) {
+        latency.recordValue(Math.max(0, nanos));
+    }
+
+    @Override
+    public void recordUpstreamWait(long nanos) {
+        upstreamWait.recordValue(Math.max(0, nanos));
+    }
+
+    @Override
+    public void recordDownstreamWait(long nanos) {
+        downstreamWait.recordValue(Math.max(0, nanos));
+    }
+
+    @Override
+    public void recordBufferFill(int used, int capacity) {
+        bufferCapacity.set(capacity);
+        bufferFill.recordValue(used);
+    }
+
+    /**
+     * Mesures depuis le snapshot précédent.
+     */
+    synchronized StageSnapshot snapshot() {
+        final long now = System.nanoTime();
+        final long total = elements.sum();
+        final double seconds = (now - lastSnapshotNanos) / 1e9;
+        final StageSnapshot snapshot = new StageSnapshot(
+                name,
+                total,
+                seconds > 0 ? (total - lastElements) / seconds : 0,
+                latency.getIntervalHistogram(),
+                upstreamWait.getIntervalHistogram(),
+                downstreamWait.getIntervalHistogram(),
+                bufferFill.getIntervalHistogram(),
+                bufferCapacity.get());
+        lastElements = total;
+        lastSnapshotNanos = now;
+        return snapshot;
+    }
+}
@@ -0,0 +1,75 @@
+package libs.metrics;
+
+import akka.NotUsed;
+import akka.stream.Attributes;
+import akka.stream.javadsl.BidiFlow;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Keep;
+import com.typesafe.config.Config;
+
+/**
+ * Fabrique de stages instrumentés. Les mesures sont échantillonnées (un élément sur {@code sampleEvery})
+ * et publiées dans le {@link MetricsRegistry}, jamais tracées élément par élément.
+ */
+public final class Instrumentation {
+
+    public static final int DEFAULT_SAMPLE_EVERY = 16;
+
+    private final MetricsRegistry registry;
+    private final int sampleEvery;
+
+    public Instrumentation(MetricsRegistry registry, int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery must be >= 1, was " + sampleEvery);
+        }
+        this.registry = registry;
+        this.sampleEvery = sampleEvery;
+    }
+
+    public Instrumentation(MetricsRegistry registry) {
+        this(registry, DEFAULT_SAMPLE_EVERY);
+    }
+
+    /**
+     * Lit {@code sample-every}.
+     */
+    public static Instrumentation fromConfig(MetricsRegistry registry, Config config) {
+        return new Instrumentation(registry, config.getInt("sample-every"));
+    }
+
+    public MetricsRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Point de mesure transparent : débit et attente de l'amont (famine) / de l'aval (backpressure).
+     */
+    public <T> Flow<T, T, NotUsed> probe(String name) {
+        return Flow.fromGraph(new ProbeStage<T>(registry.stage(name), sampleEvery));
+    }
+
+    /**
+     * Mesure en plus la latence de chaque élément échantillonné à travers {@code flow}.
+     */
+    public <In, Out, M> Flow<In, Out, M> timed(String name, Flow<In, Out, M> flow) {
+        return BidiFlow.fromGraph(new TimedBidi<In, Out>(registry.stage(name), sampleEvery)).join(flow, Keep.right());
+    }
+
+    /**
+     * Buffer explicite dont le remplissage est mesuré. Placé juste après un {@code .async()}, il remplace le
+     * buffer d'entrée invisible de la frontière asynchrone (ramené à 1).
+     */
+    public <T> Flow<T, T, NotUsed> buffer(String name, int size) {
+        return Flow.fromGraph(new MeteredBuffer<T>(registry.stage(name), size, sampleEvery))
+                .addAttributes(Attributes.inputBuffer(1, 1));
+    }
+
+    /**
+     * Comme {@link #buffer(String, int)}, mais la capacité est revue à chaque fenêtre entre les bornes de
+     * {@code sizing}. La capacité retenue est publiée avec le remplissage ({@link StageSnapshot#bufferCapacity()}).
+     */
+    public <T> Flow<T, T, NotUsed> adaptiveBuffer(String name, BufferSizing sizing) {
+        return Flow.fromGraph(new AdaptiveBuffer<T>(registry.stage(name), sizing, sampleEvery))
+                .addAttributes(Attributes.inputBuffer(1, 1));
+    }
+}
@@ -0,0 +1,104 @@
+package libs.metrics;
+
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Buffer avec backpressure dont le taux de remplissage est échantillonné à chaque arrivée.
+ */
+final class MeteredBuffer<T> extends GraphStage<FlowShape<T, T>> {
+
+    private final Inlet<T> in = Inlet.create("MeteredBuffer.in");
+    private final Outlet<T> out = Outlet.create("MeteredBuffer.out");
+    private final FlowShape<T, T> shape = FlowShape.of(in, out);
+
+    private final StageMetrics metrics;
+    private final int capacity;
+    private final int sampleEvery;
+
+    MeteredBuffer(StageMetrics metrics, int capacity, int sampleEvery) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1, was " + capacity);
+        }
+        this.metrics = metrics;
+        this.capacity = capacity;
+        this.sampleEvery = sampleEvery;
+    }
+
+    @Override
+    public FlowShape<T, T> shape() {
+        return shape;
+    }
+
+    @Override
+    public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+        return new GraphStageLogic(shape) {
+
+            private final Sampler sampler = new Sampler(sampleEvery);
+            private final Deque<T> buffer = new ArrayDeque<>(capacity);
+
+            {
+                setHandler(in, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        metrics.onElement();
+                        final T element = grab(in);
+                        if (isAvailable(out) && buffer.isEmpty()) {
+                            push(out, element);
+                        } else {
+                            buffer.add(element);
+                        }
+                        if (sampler.next()) {
+                            metrics.recordBufferFill(buffer.size(), capacity);
+                        }
+                        if (buffer.size() < capacity) {
+                            pull(in);
+                        }
+                    }
+
+                    @Override
+                    public void onUpstreamFinish() {
+                        if (buffer.isEmpty()) {
+                            completeStage();
+                        }
+                    }
+                });
+
+                setHandler(out, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        if (!buffer.isEmpty()) {
+                            push(out, buffer.poll());
+                        }
+                        if (isClosed(in)) {
+                            if (buffer.isEmpty()) {
+                                completeStage();
+                            }
+                        } else if (!hasBeenPulled(in) && buffer.size() < capacity) {
+                            pull(in);
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void preStart() {
+                pull(in);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "MeteredBuffer(" + capacity + ")";
+    }
+}
@@ -0,0 +1,10 @@
+package libs.metrics;
+
+/**
+ * Fournit les {@link StageMetrics} d'un stage à partir de son nom.
+ * Un même nom renvoie toujours la même instance, même si le stream est matérialisé plusieurs fois.
+ */
+public interface MetricsRegistry {
+
+    StageMetrics stage(String name);
+}
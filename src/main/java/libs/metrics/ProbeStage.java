@@ -0,0 +1,82 @@
+package libs.metrics;
+
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+
+/**
+ * Stage transparent qui compte les éléments et mesure, par échantillonnage, l'attente de l'amont et de l'aval.
+ */
+final class ProbeStage<T> extends GraphStage<FlowShape<T, T>> {
+
+    private final Inlet<T> in = Inlet.create("Probe.in");
+    private final Outlet<T> out = Outlet.create("Probe.out");
+    private final FlowShape<T, T> shape = FlowShape.of(in, out);
+
+    private final StageMetrics metrics;
+    private final int sampleEvery;
+
+    ProbeStage(StageMetrics metrics, int sampleEvery) {
+        this.metrics = metrics;
+        this.sampleEvery = sampleEvery;
+    }
+
+    @Override
+    public FlowShape<T, T> shape() {
+        return shape;
+    }
+
+    @Override
+    public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+        return new GraphStageLogic(shape) {
+
+            private final Sampler sampler = new Sampler(sampleEvery);
+            private long pulledAt = -1;
+            private long pushedAt = -1;
+
+            {
+                setHandler(in, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        metrics.onElement();
+                        if (sampler.next()) {
+                            final long now = System.nanoTime();
+                            if (pulledAt >= 0) {
+                                metrics.recordUpstreamWait(now - pulledAt);
+                                pulledAt = -1;
+                            }
+                            pushedAt = now;
+                        }
+                        push(out, grab(in));
+                    }
+                });
+
+                setHandler(out, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        final boolean sampleNext = sampler.peek();
+                        if (pushedAt >= 0 || sampleNext) {
+                            final long now = System.nanoTime();
+                            if (pushedAt >= 0) {
+                                metrics.recordDownstreamWait(now - pushedAt);
+                                pushedAt = -1;
+                            }
+                            pulledAt = sampleNext ? now : -1;
+                        }
+                        pull(in);
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Probe";
+    }
+}
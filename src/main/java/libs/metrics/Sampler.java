@@ -0,0 +1,31 @@
+package libs.metrics;
+
+/**
+ * Horloge d'un stage instrumenté : un élément sur {@code sampleEvery} est chronométré, les autres sont seulement comptés.
+ */
+final class Sampler {
+
+    private final int sampleEvery;
+    private long count = 0;
+
+    Sampler(int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("sampleEvery must be >= 1, was " + sampleEvery);
+        }
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * @return vrai si l'élément courant doit être chronométré
+     */
+    boolean next() {
+        return count++ % sampleEvery == 0;
+    }
+
+    /**
+     * @return vrai si le prochain élément sera chronométré
+     */
+    boolean peek() {
+        return count % sampleEvery == 0;
+    }
+}
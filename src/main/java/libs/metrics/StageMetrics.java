@@ -0,0 +1,27 @@
+package libs.metrics;
+
+/**
+ * Mesures remontées par les stages instrumentés. Les appels se font depuis les threads du stream :
+ * une implémentation doit être thread-safe et ne pas bloquer.
+ */
+public interface StageMetrics {
+
+    void onElement();
+
+    /**
+     * Temps passé par un élément échantillonné dans le flow mesuré.
+     */
+    void recordLatency(long nanos);
+
+    /**
+     * Attente entre une demande et l'arrivée de l'élément : l'amont est trop lent (famine).
+     */
+    void recordUpstreamWait(long nanos);
+
+    /**
+     * Attente entre l'émission d'un élément et la demande suivante : l'aval est trop lent (backpressure).
+     */
+    void recordDownstreamWait(long nanos);
+
+    void recordBufferFill(int used, int capacity);
+}
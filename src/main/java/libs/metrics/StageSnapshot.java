@@ -0,0 +1,90 @@
+package libs.metrics;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesures d'un stage sur un intervalle d'échantillonnage.
+ */
+public final class StageSnapshot {
+
+    private final String name;
+    private final long elements;
+    private final double elementsPerSecond;
+    private final Histogram latency;
+    private final Histogram upstreamWait;
+    private final Histogram downstreamWait;
+    private final Histogram bufferFill;
+    private final int bufferCapacity;
+
+    StageSnapshot(String name, long elements, double elementsPerSecond, Histogram latency,
+                  Histogram upstreamWait, Histogram downstreamWait, Histogram bufferFill, int bufferCapacity) {
+        this.name = name;
+        this.elements = elements;
+        this.elementsPerSecond = elementsPerSecond;
+        this.latency = latency;
+        this.upstreamWait = upstreamWait;
+        this.downstreamWait = downstreamWait;
+        this.bufferFill = bufferFill;
+        this.bufferCapacity = bufferCapacity;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Total depuis la création du stage.
+     */
+    public long elements() {
+        return elements;
+    }
+
+    public double elementsPerSecond() {
+        return elementsPerSecond;
+    }
+
+    public Histogram latency() {
+        return latency;
+    }
+
+    public Histogram upstreamWait() {
+        return upstreamWait;
+    }
+
+    public Histogram downstreamWait() {
+        return downstreamWait;
+    }
+
+    public Histogram bufferFill() {
+        return bufferFill;
+    }
+
+    public int bufferCapacity() {
+        return bufferCapacity;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(name)
+                .append(String.format(": %d elements, %.1f/s", elements, elementsPerSecond));
+        appendNanos(builder, "latency", latency);
+        appendNanos(builder, "upstream wait", upstreamWait);
+        appendNanos(builder, "downstream wait", downstreamWait);
+        if (bufferFill.getTotalCount() > 0) {
+            builder.append(String.format(", buffer p50=%d p99=%d max=%d / %d",
+                    bufferFill.getValueAtPercentile(50), bufferFill.getValueAtPercentile(99), bufferFill.getMaxValue(), bufferCapacity));
+        }
+        return builder.toString();
+    }
+
+    private static void appendNanos(StringBuilder builder, String label, Histogram histogram) {
+        if (histogram.getTotalCount() > 0) {
+            builder.append(String.format(", %s p50=%dus p99=%dus max=%dus", label,
+                    TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(50)),
+                    TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(99)),
+                    TimeUnit.NANOSECONDS.toMicros(histogram.getMaxValue())));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package libs.metrics;
+
+import akka.stream.Attributes;
+import akka.stream.BidiShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+
+/**
+ * Encadre un flow : {@code in1 -> out1} vers le flow mesuré, {@code in2 -> out2} en sortie.
+ *
+ * Un élément entrant sur {@code sampleEvery} est horodaté avec son rang ; la latence est enregistrée quand
+ * l'élément de même rang ressort. Exact pour un flow 1:1 qui conserve l'ordre, approché sinon.
+ */
+final class TimedBidi<In, Out> extends GraphStage<BidiShape<In, In, Out, Out>> {
+
+    private static final int MAX_PENDING_SAMPLES = 1024;
+
+    private final Inlet<In> in1 = Inlet.create("Timed.in1");
+    private final Outlet<In> out1 = Outlet.create("Timed.out1");
+    private final Inlet<Out> in2 = Inlet.create("Timed.in2");
+    private final Outlet<Out> out2 = Outlet.create("Timed.out2");
+    private final BidiShape<In, In, Out, Out> shape = BidiShape.of(in1, out1, in2, out2);
+
+    private final StageMetrics metrics;
+    private final int sampleEvery;
+
+    TimedBidi(StageMetrics metrics, int sampleEvery) {
+        this.metrics = metrics;
+        this.sampleEvery = sampleEvery;
+    }
+
+    @Override
+    public BidiShape<In, In, Out, Out> shape() {
+        return shape;
+    }
+
+    @Override
+    public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+        return new GraphStageLogic(shape) {
+
+            private final Sampler entering = new Sampler(sampleEvery);
+            private final Sampler leaving = new Sampler(sampleEvery);
+            private final long[] pendingRanks = new long[MAX_PENDING_SAMPLES];
+            private final long[] pendingTimes = new long[MAX_PENDING_SAMPLES];
+            private int pendingHead = 0;
+            private int pendingSize = 0;
+            private long enteredCount = 0;
+            private long leftCount = 0;
+            private long pulledAt = -1;
+            private long pushedAt = -1;
+
+            {
+                setHandler(in1, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        enteredCount++;
+                        if (entering.next()) {
+                            final long now = System.nanoTime();
+                            if (pulledAt >= 0) {
+                                metrics.recordUpstreamWait(now - pulledAt);
+                                pulledAt = -1;
+                            }
+                            if (pendingSize < MAX_PENDING_SAMPLES) {
+                                final int slot = (pendingHead + pendingSize++) % MAX_PENDING_SAMPLES;
+                                pendingRanks[slot] = enteredCount;
+                                pendingTimes[slot] = now;
+                            }
+                        }
+                        push(out1, grab(in1));
+                    }
+
+                    @Override
+                    public void onUpstreamFinish() {
+                        complete(out1);
+                    }
+                });
+
+                setHandler(out1, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        if (entering.peek()) {
+                            pulledAt = System.nanoTime();
+                        }
+                        pull(in1);
+                    }
+
+                    @Override
+                    public void onDownstreamFinish() {
+                        cancel(in1);
+                    }
+                });
+
+                setHandler(in2, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        leftCount++;
+                        metrics.onElement();
+                        if (pendingSize > 0 && pendingRanks[pendingHead] <= leftCount) {
+                            metrics.recordLatency(System.nanoTime() - pendingTimes[pendingHead]);
+                            pendingHead = (pendingHead + 1) % MAX_PENDING_SAMPLES;
+                            pendingSize--;
+                        }
+                        if (leaving.next()) {
+                            pushedAt = System.nanoTime();
+                        }
+                        push(out2, grab(in2));
+                    }
+                });
+
+                setHandler(out2, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        if (pushedAt >= 0) {
+                            metrics.recordDownstreamWait(System.nanoTime() - pushedAt);
+                            pushedAt = -1;
+                        }
+                        pull(in2);
+                    }
+                });
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "Timed";
+    }
+}
@@ -0,0 +1,45 @@
+package libs.stream;
+
+/**
+ * Additive increase / multiplicative decrease : +1 quand la limite est atteinte sans refus,
+ * multipliée par {@code backoffRatio} à chaque refus.
+ */
+final class AimdLimit implements ConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private int limit;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be in ]0, 1[, was " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (inFlight >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AimdLimit(" + limit + ")";
+    }
+}
@@ -0,0 +1,176 @@
+package libs.stream;
+
+import akka.NotUsed;
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.javadsl.Flow;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+
+import java.util.function.Function;
+
+/**
+ * Variantes bornées de {@code scan} pour les flux infinis : l'état ne grandit pas avec le nombre d'éléments reçus.
+ *
+ * Un {@code scan("", (acc, elt) -> acc + sep + elt)} recopie toute la chaîne accumulée à chaque élément : mémoire et
+ * CPU croissent linéairement avec la durée de vie du stream, le coût total est quadratique.
+ */
+public final class BoundedScan {
+
+    private BoundedScan() {
+    }
+
+    /**
+     * Émet pour chaque élément la fonction appliquée aux {@code size} derniers éléments, du plus ancien au plus récent
+     * (moins tant que la fenêtre n'est pas remplie). Les éléments sont gardés dans un tableau circulaire.
+     */
+    public static <T, O> Flow<T, O, NotUsed> window(int size, Function<ElementView<T>, O> fn) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be >= 1, was " + size);
+        }
+        return Flow.fromGraph(new Window<>(size, fn));
+    }
+
+    /**
+     * Concaténation des éléments séparés par {@code separator}, dont seuls les {@code maxLength} derniers caractères
+     * sont conservés. L'accumulateur est un {@link StringBuilder} tronqué par le début ; seul le résultat émis est copié.
+     */
+    public static Flow<String, String, NotUsed> joining(String separator, int maxLength) {
+        if (maxLength < 1) {
+            throw new IllegalArgumentException("maxLength must be >= 1, was " + maxLength);
+        }
+        return Flow.fromGraph(new Joining(separator, maxLength));
+    }
+
+    private static final class Window<T, O> extends GraphStage<FlowShape<T, O>> {
+
+        private final Inlet<T> in = Inlet.create("BoundedScan.window.in");
+        private final Outlet<O> out = Outlet.create("BoundedScan.window.out");
+        private final FlowShape<T, O> shape = FlowShape.of(in, out);
+
+        private final int size;
+        private final Function<ElementView<T>, O> fn;
+
+        private Window(int size, Function<ElementView<T>, O> fn) {
+            this.size = size;
+            this.fn = fn;
+        }
+
+        @Override
+        public FlowShape<T, O> shape() {
+            return shape;
+        }
+
+        @Override
+        public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+            return new GraphStageLogic(shape) {
+
+                private final Object[] ring = new Object[size];
+                private int count = 0;
+                private int next = 0;
+                private final ElementView<T> view = new ElementView<T>() {
+                    @Override
+                    public int size() {
+                        return count;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public T get(int index) {
+                        if (index < 0 || index >= count) {
+                            throw new IndexOutOfBoundsException("index " + index + ", size " + count);
+                        }
+                        final int oldest = count < size ? 0 : next;
+                        return (T) ring[(oldest + index) % size];
+                    }
+                };
+
+                {
+                    setHandler(in, new AbstractInHandler() {
+                        @Override
+                        public void onPush() {
+                            ring[next] = grab(in);
+                            next = (next + 1) % size;
+                            if (count < size) {
+                                count++;
+                            }
+                            push(out, fn.apply(view));
+                        }
+                    });
+
+                    setHandler(out, new AbstractOutHandler() {
+                        @Override
+                        public void onPull() {
+                            pull(in);
+                        }
+                    });
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "BoundedScan.window(" + size + ")";
+        }
+    }
+
+    private static final class Joining extends GraphStage<FlowShape<String, String>> {
+
+        private final Inlet<String> in = Inlet.create("BoundedScan.joining.in");
+        private final Outlet<String> out = Outlet.create("BoundedScan.joining.out");
+        private final FlowShape<String, String> shape = FlowShape.of(in, out);
+
+        private final String separator;
+        private final int maxLength;
+
+        private Joining(String separator, int maxLength) {
+            this.separator = separator;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public FlowShape<String, String> shape() {
+            return shape;
+        }
+
+        @Override
+        public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+            return new GraphStageLogic(shape) {
+
+                // Marge pour tronquer par paquets plutôt qu'à chaque élément
+                private final StringBuilder builder = new StringBuilder(maxLength * 2);
+
+                {
+                    setHandler(in, new AbstractInHandler() {
+                        @Override
+                        public void onPush() {
+                            builder.append(separator).append(grab(in));
+                            if (builder.length() > maxLength * 2) {
+                                builder.delete(0, builder.length() - maxLength);
+                            }
+                            push(out, builder.length() > maxLength
+                                    ? builder.substring(builder.length() - maxLength)
+                                    : builder.toString());
+                        }
+                    });
+
+                    setHandler(out, new AbstractOutHandler() {
+                        @Override
+                        public void onPull() {
+                            pull(in);
+                        }
+                    });
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return "BoundedScan.joining(" + maxLength + ")";
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package libs.stream;
+
+import com.typesafe.config.Config;
+
+import java.util.function.Supplier;
+
+/**
+ * Limite du nombre de requêtes en vol vers une cible, ajustée à partir de chaque réponse.
+ * Une instance par cible, utilisée depuis un seul stage : pas besoin d'être thread-safe.
+ */
+public interface ConcurrencyLimit {
+
+    int limit();
+
+    /**
+     * @param rttNanos durée de la requête
+     * @param inFlight requêtes en vol vers la cible au moment de la réponse, celle-ci comprise
+     * @param dropped  la requête a été refusée ou ralentie par la cible (429, rejeu...)
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+
+    static Supplier<ConcurrencyLimit> fixed(int limit) {
+        final FixedLimit fixed = new FixedLimit(limit);
+        return () -> fixed;
+    }
+
+    static Supplier<ConcurrencyLimit> aimd(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        return () -> new AimdLimit(initialLimit, minLimit, maxLimit, backoffRatio);
+    }
+
+    static Supplier<ConcurrencyLimit> vegas(int initialLimit, int minLimit, int maxLimit) {
+        return () -> new VegasLimit(initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Lit {@code algorithm} ({@code fixed}, {@code aimd} ou {@code vegas}), {@code initial-limit},
+     * {@code min-limit}, {@code max-limit} et {@code backoff-ratio}.
+     */
+    static Supplier<ConcurrencyLimit> fromConfig(Config config) {
+        final String algorithm = config.getString("algorithm");
+        final int initial = config.getInt("initial-limit");
+        switch (algorithm) {
+            case "fixed":
+                return fixed(initial);
+            case "aimd":
+                return aimd(initial, config.getInt("min-limit"), config.getInt("max-limit"), config.getDouble("backoff-ratio"));
+            case "vegas":
+                return vegas(initial, config.getInt("min-limit"), config.getInt("max-limit"));
+            default:
+                throw new IllegalArgumentException("Unknown concurrency limit algorithm " + algorithm);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package libs.stream;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs d'un {@link ConflateZip} : éléments rapides reçus, abandonnés ou agrégés, paires émises
+ * et éléments lents remplacés avant d'avoir été appariés.
+ * Écrits uniquement par le stage, lisibles depuis n'importe quel thread.
+ */
+public final class ConflateStats {
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong aggregated = new AtomicLong();
+    private final AtomicLong emitted = new AtomicLong();
+    private final AtomicLong slowDropped = new AtomicLong();
+
+    ConflateStats() {
+    }
+
+    public long received() {
+        return received.get();
+    }
+
+    /**
+     * Éléments rapides écartés sans jamais sortir du stage (échantillonnage ou retard maximal dépassé).
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Éléments rapides fusionnés dans un agrégat déjà commencé.
+     */
+    public long aggregated() {
+        return aggregated.get();
+    }
+
+    public long emitted() {
+        return emitted.get();
+    }
+
+    /**
+     * Éléments lents remplacés par un plus récent faute d'élément rapide à leur associer.
+     */
+    public long slowDropped() {
+        return slowDropped.get();
+    }
+
+    void received(long n) {
+        received.addAndGet(n);
+    }
+
+    void dropped(long n) {
+        dropped.addAndGet(n);
+    }
+
+    void aggregated(long n) {
+        aggregated.addAndGet(n);
+    }
+
+    void onEmitted() {
+        emitted.incrementAndGet();
+    }
+
+    void onSlowDropped() {
+        slowDropped.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConflateStats(received=%d, dropped=%d, aggregated=%d, emitted=%d, slowDropped=%d)",
+                received(), dropped(), aggregated(), emitted(), slowDropped());
+    }
+}
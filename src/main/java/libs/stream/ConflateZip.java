@@ -0,0 +1,301 @@
+package libs.stream;
+
+import akka.japi.Pair;
+import akka.stream.Attributes;
+import akka.stream.FanInShape2;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.GraphDSL;
+import akka.stream.javadsl.Source;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStageLogic;
+import akka.stream.stage.GraphStageWithMaterializedValue;
+import io.vavr.collection.List;
+import io.vavr.collection.Queue;
+import scala.Tuple2;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Associe un flux rapide à un flux lent, à la place d'un {@code conflateWithSeed} suivi d'un {@code zip}.
+ *
+ * Les deux entrées sont tirées en continu : les éléments rapides reçus depuis la dernière émission sont résumés
+ * selon une politique (dernière valeur, agrégat, ou les {@code maxLag} plus récents) et chaque élément lent
+ * sort avec ce résumé. Aucun élément ne reste en attente dans un buffer de zip : ce qui est émis date au plus
+ * de la dernière émission, quelle que soit la taille du buffer d'entrée d'une frontière {@code async()} en amont
+ * ({@code Attributes.inputBuffer(1, 1)} la réduit au minimum).
+ *
+ * Un élément lent qui arrive alors qu'aucun élément rapide n'est disponible attend le suivant ; s'il est rattrapé
+ * par un élément lent plus récent, il est remplacé. La valeur matérialisée compte les abandons et les agrégations.
+ */
+public final class ConflateZip<F, A, S> extends GraphStageWithMaterializedValue<FanInShape2<F, S, Pair<A, S>>, ConflateStats> {
+
+    private final Inlet<F> fast = Inlet.create("ConflateZip.fast");
+    private final Inlet<S> slow = Inlet.create("ConflateZip.slow");
+    private final Outlet<Pair<A, S>> out = Outlet.create("ConflateZip.out");
+    private final FanInShape2<F, S, Pair<A, S>> shape = new FanInShape2<>(fast, slow, out);
+
+    private final String policy;
+    private final Supplier<Summary<F, A>> summaryFactory;
+
+    /**
+     * Échantillonnage : seule la dernière valeur rapide est gardée, les précédentes sont comptées comme abandonnées.
+     */
+    public static <F, S> Flow<F, Pair<F, S>, ConflateStats> latest(Source<S, ?> slowSource) {
+        return create(slowSource, new ConflateZip<F, F, S>("latest", Latest::new));
+    }
+
+    /**
+     * Agrégat depuis la dernière émission, comme {@code conflateWithSeed} mais sans buffer de zip derrière.
+     */
+    public static <F, A, S> Flow<F, Pair<A, S>, ConflateStats> aggregate(Source<S, ?> slowSource,
+                                                                         Function<F, A> seed,
+                                                                         BiFunction<A, F, A> aggregate) {
+        return create(slowSource, new ConflateZip<F, A, S>("aggregate", () -> new Aggregate<>(seed, aggregate)));
+    }
+
+    /**
+     * Retard borné : les {@code maxLag} éléments rapides les plus récents sortent ensemble, dans l'ordre,
+     * et les plus anciens au-delà sont abandonnés.
+     */
+    public static <F, S> Flow<F, Pair<List<F>, S>, ConflateStats> boundedLag(Source<S, ?> slowSource, int maxLag) {
+        if (maxLag < 1) {
+            throw new IllegalArgumentException("maxLag must be >= 1, was " + maxLag);
+        }
+        return create(slowSource, new ConflateZip<F, List<F>, S>("boundedLag(" + maxLag + ")", () -> new BoundedLag<>(maxLag)));
+    }
+
+    private static <F, A, S> Flow<F, Pair<A, S>, ConflateStats> create(Source<S, ?> slowSource, ConflateZip<F, A, S> stage) {
+        return Flow.fromGraph(GraphDSL.create(stage, (builder, zip) -> {
+            builder.from(builder.add(slowSource)).toInlet(zip.in1());
+            return FlowShape.of(zip.in0(), zip.out());
+        }));
+    }
+
+    private ConflateZip(String policy, Supplier<Summary<F, A>> summaryFactory) {
+        this.policy = policy;
+        this.summaryFactory = summaryFactory;
+    }
+
+    @Override
+    public FanInShape2<F, S, Pair<A, S>> shape() {
+        return shape;
+    }
+
+    @Override
+    public Tuple2<GraphStageLogic, ConflateStats> createLogicAndMaterializedValue(Attributes inheritedAttributes) {
+        final ConflateStats stats = new ConflateStats();
+        final Summary<F, A> summary = summaryFactory.get();
+
+        final GraphStageLogic logic = new GraphStageLogic(shape) {
+
+            private S pendingSlow;
+
+            {
+                setHandler(fast, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        summary.offer(grab(fast), stats);
+                        pull(fast);
+                        emit();
+                    }
+
+                    @Override
+                    public void onUpstreamFinish() {
+                        completeIfDone();
+                    }
+                });
+
+                setHandler(slow, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        if (pendingSlow != null) {
+                            stats.onSlowDropped();
+                        }
+                        pendingSlow = grab(slow);
+                        pull(slow);
+                        emit();
+                    }
+
+                    @Override
+                    public void onUpstreamFinish() {
+                        completeIfDone();
+                    }
+                });
+
+                setHandler(out, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        emit();
+                    }
+                });
+            }
+
+            @Override
+            public void preStart() {
+                pull(fast);
+                pull(slow);
+            }
+
+            private void emit() {
+                if (isAvailable(out) && pendingSlow != null && !summary.isEmpty()) {
+                    push(out, Pair.create(summary.take(), pendingSlow));
+                    pendingSlow = null;
+                    stats.onEmitted();
+                    completeIfDone();
+                }
+            }
+
+            private void completeIfDone() {
+                if ((isClosed(fast) && summary.isEmpty()) || (isClosed(slow) && pendingSlow == null)) {
+                    summary.discard(stats);
+                    completeStage();
+                }
+            }
+        };
+        return Tuple2.apply(logic, stats);
+    }
+
+    @Override
+    public String toString() {
+        return "ConflateZip(" + policy + ")";
+    }
+
+    /**
+     * Résumé des éléments rapides reçus depuis la dernière émission. Une instance par matérialisation.
+     */
+    private interface Summary<F, A> {
+
+        void offer(F element, ConflateStats stats);
+
+        boolean isEmpty();
+
+        A take();
+
+        /**
+         * Le stage s'arrête : ce qui n'a pas été émis est compté comme abandonné.
+         */
+        void discard(ConflateStats stats);
+    }
+
+    private static final class Latest<F> implements Summary<F, F> {
+
+        private F latest;
+
+        @Override
+        public void offer(F element, ConflateStats stats) {
+            stats.received(1);
+            if (latest != null) {
+                stats.dropped(1);
+            }
+            latest = element;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return latest == null;
+        }
+
+        @Override
+        public F take() {
+            final F result = latest;
+            latest = null;
+            return result;
+        }
+
+        @Override
+        public void discard(ConflateStats stats) {
+            if (latest != null) {
+                stats.dropped(1);
+                latest = null;
+            }
+        }
+    }
+
+    private static final class Aggregate<F, A> implements Summary<F, A> {
+
+        private final Function<F, A> seed;
+        private final BiFunction<A, F, A> aggregate;
+        private A current;
+        private long count;
+
+        private Aggregate(Function<F, A> seed, BiFunction<A, F, A> aggregate) {
+            this.seed = seed;
+            this.aggregate = aggregate;
+        }
+
+        @Override
+        public void offer(F element, ConflateStats stats) {
+            stats.received(1);
+            if (count == 0) {
+                current = seed.apply(element);
+            } else {
+                current = aggregate.apply(current, element);
+                stats.aggregated(1);
+            }
+            count++;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return count == 0;
+        }
+
+        @Override
+        public A take() {
+            final A result = current;
+            current = null;
+            count = 0;
+            return result;
+        }
+
+        @Override
+        public void discard(ConflateStats stats) {
+            stats.dropped(count);
+            take();
+        }
+    }
+
+    private static final class BoundedLag<F> implements Summary<F, List<F>> {
+
+        private final int maxLag;
+        private Queue<F> window = Queue.empty();
+
+        private BoundedLag(int maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        @Override
+        public void offer(F element, ConflateStats stats) {
+            stats.received(1);
+            window = window.enqueue(element);
+            if (window.size() > maxLag) {
+                window = window.tail();
+                stats.dropped(1);
+            }
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return window.isEmpty();
+        }
+
+        @Override
+        public List<F> take() {
+            final List<F> result = window.toList();
+            window = Queue.empty();
+            return result;
+        }
+
+        @Override
+        public void discard(ConflateStats stats) {
+            stats.dropped(window.size());
+            window = Queue.empty();
+        }
+    }
+}
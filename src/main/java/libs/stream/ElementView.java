@@ -0,0 +1,25 @@
+package libs.stream;
+
+/**
+ * Vue indexée, en lecture seule, sur des éléments détenus par un stage ({@link ZipWithN}, {@link BoundedScan#window}).
+ *
+ * La vue est réutilisée d'un élément à l'autre : elle n'est valable que pendant l'appel de la fonction qui la reçoit
+ * et ne doit pas être conservée.
+ */
+public interface ElementView<T> {
+
+    int size();
+
+    T get(int index);
+
+    default String mkString(String separator) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) {
+                builder.append(separator);
+            }
+            builder.append(get(i));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package libs.stream;
+
+final class FixedLimit implements ConcurrencyLimit {
+
+    private final int limit;
+
+    FixedLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be >= 1, was " + limit);
+        }
+        this.limit = limit;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+    }
+
+    @Override
+    public String toString() {
+        return "FixedLimit(" + limit + ")";
+    }
+}
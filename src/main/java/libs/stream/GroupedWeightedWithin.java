@@ -0,0 +1,167 @@
+package libs.stream;
+
+import akka.NotUsed;
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.javadsl.Flow;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+import akka.stream.stage.TimerGraphStageLogic;
+import com.typesafe.config.Config;
+import io.vavr.collection.List;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.function.ToLongFunction;
+
+/**
+ * Regroupe les éléments en lots fermés dès que l'une des limites est atteinte :
+ * nombre d'éléments, poids cumulé (ex: octets sérialisés) ou délai d'attente depuis le premier élément du lot.
+ *
+ * Un élément plus lourd que {@code maxWeight} part seul dans son propre lot.
+ */
+public final class GroupedWeightedWithin<T> extends GraphStage<FlowShape<T, List<T>>> {
+
+    private static final String LINGER_TIMER = "linger";
+
+    private final Inlet<T> in = Inlet.create("GroupedWeightedWithin.in");
+    private final Outlet<List<T>> out = Outlet.create("GroupedWeightedWithin.out");
+    private final FlowShape<T, List<T>> shape = FlowShape.of(in, out);
+
+    private final int maxCount;
+    private final long maxWeight;
+    private final ToLongFunction<T> costFn;
+    private final Duration maxLinger;
+
+    public static <T> Flow<T, List<T>, NotUsed> create(int maxCount, long maxWeight, ToLongFunction<T> costFn, Duration maxLinger) {
+        return Flow.fromGraph(new GroupedWeightedWithin<>(maxCount, maxWeight, costFn, maxLinger));
+    }
+
+    /**
+     * Lit les limites {@code max-documents}, {@code max-bytes} et {@code max-linger} depuis la config donnée.
+     */
+    public static <T> Flow<T, List<T>, NotUsed> fromConfig(Config config, ToLongFunction<T> costFn) {
+        return create(
+                config.getInt("max-documents"),
+                config.getBytes("max-bytes"),
+                costFn,
+                config.getDuration("max-linger"));
+    }
+
+    private GroupedWeightedWithin(int maxCount, long maxWeight, ToLongFunction<T> costFn, Duration maxLinger) {
+        if (maxCount < 1) {
+            throw new IllegalArgumentException("maxCount must be >= 1, was " + maxCount);
+        }
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be >= 1, was " + maxWeight);
+        }
+        if (maxLinger.isNegative() || maxLinger.isZero()) {
+            throw new IllegalArgumentException("maxLinger must be > 0, was " + maxLinger);
+        }
+        this.maxCount = maxCount;
+        this.maxWeight = maxWeight;
+        this.costFn = costFn;
+        this.maxLinger = maxLinger;
+    }
+
+    @Override
+    public FlowShape<T, List<T>> shape() {
+        return shape;
+    }
+
+    @Override
+    public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+        return new TimerGraphStageLogic(shape) {
+
+            private java.util.List<T> current = new ArrayList<>();
+            private long currentWeight = 0;
+            private final Deque<List<T>> closed = new ArrayDeque<>();
+
+            {
+                setHandler(in, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        final T element = grab(in);
+                        final long cost = costFn.applyAsLong(element);
+                        if (!current.isEmpty() && currentWeight + cost > maxWeight) {
+                            close();
+                        }
+                        current.add(element);
+                        currentWeight += cost;
+                        if (current.size() == 1) {
+                            scheduleOnce(LINGER_TIMER, maxLinger);
+                        }
+                        if (current.size() >= maxCount || currentWeight >= maxWeight) {
+                            close();
+                        }
+                        emit();
+                        pullIfNeeded();
+                    }
+
+                    @Override
+                    public void onUpstreamFinish() {
+                        if (!current.isEmpty()) {
+                            close();
+                        }
+                        emit();
+                        if (closed.isEmpty()) {
+                            completeStage();
+                        }
+                    }
+                });
+
+                setHandler(out, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        emit();
+                        if (isClosed(in)) {
+                            if (closed.isEmpty()) {
+                                completeStage();
+                            }
+                        } else {
+                            pullIfNeeded();
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onTimer(Object timerKey) {
+                if (!current.isEmpty()) {
+                    close();
+                    emit();
+                }
+            }
+
+            private void close() {
+                closed.add(List.ofAll(current));
+                current = new ArrayList<>();
+                currentWeight = 0;
+                cancelTimer(LINGER_TIMER);
+            }
+
+            private void emit() {
+                if (isAvailable(out) && !closed.isEmpty()) {
+                    push(out, closed.poll());
+                }
+            }
+
+            private void pullIfNeeded() {
+                if (closed.isEmpty() && !hasBeenPulled(in) && !isClosed(in)) {
+                    pull(in);
+                }
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "GroupedWeightedWithin(" + maxCount + ", " + maxWeight + ", " + maxLinger + ")";
+    }
+}
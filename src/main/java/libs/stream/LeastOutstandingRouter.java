@@ -0,0 +1,226 @@
+package libs.stream;
+
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.javadsl.Flow;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.AsyncCallback;
+import akka.stream.stage.GraphStageLogic;
+import akka.stream.stage.GraphStageWithMaterializedValue;
+import io.vavr.collection.List;
+import scala.Tuple2;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletionStage;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Remplace un {@code Balance} round-robin : chaque élément part vers le serveur ayant le moins de requêtes
+ * en vol pondéré par sa latence récente (EWMA). Un noeud lent reçoit donc moins de trafic au lieu de
+ * ralentir toute sa part du flux.
+ *
+ * Le nombre de requêtes en vol par serveur est borné par une {@link ConcurrencyLimit}, fixe ou adaptative.
+ * Une réponse pour laquelle {@code isDropped} est vrai est signalée comme un refus à la limite.
+ *
+ * L'ordre de sortie n'est pas garanti (comme un {@code Merge}). La valeur matérialisée expose les jauges
+ * par serveur.
+ */
+public final class LeastOutstandingRouter<In, Out> extends GraphStageWithMaterializedValue<FlowShape<In, Out>, RoutingGauges> {
+
+    public static final double DEFAULT_EWMA_ALPHA = 0.3;
+
+    private final Inlet<In> in = Inlet.create("LeastOutstandingRouter.in");
+    private final Outlet<Out> out = Outlet.create("LeastOutstandingRouter.out");
+    private final FlowShape<In, Out> shape = FlowShape.of(in, out);
+
+    private final List<String> servers;
+    private final Supplier<ConcurrencyLimit> limitFactory;
+    private final double ewmaAlpha;
+    private final Predicate<Out> isDropped;
+    private final BiFunction<String, In, CompletionStage<Out>> call;
+
+    public static <In, Out> Flow<In, Out, RoutingGauges> create(List<String> servers,
+                                                                int parallelismPerServer,
+                                                                BiFunction<String, In, CompletionStage<Out>> call) {
+        return create(servers, parallelismPerServer, DEFAULT_EWMA_ALPHA, call);
+    }
+
+    public static <In, Out> Flow<In, Out, RoutingGauges> create(List<String> servers,
+                                                                int parallelismPerServer,
+                                                                double ewmaAlpha,
+                                                                BiFunction<String, In, CompletionStage<Out>> call) {
+        return create(servers, ConcurrencyLimit.fixed(parallelismPerServer), ewmaAlpha, out -> false, call);
+    }
+
+    public static <In, Out> Flow<In, Out, RoutingGauges> create(List<String> servers,
+                                                                Supplier<ConcurrencyLimit> limitFactory,
+                                                                double ewmaAlpha,
+                                                                Predicate<Out> isDropped,
+                                                                BiFunction<String, In, CompletionStage<Out>> call) {
+        return Flow.fromGraph(new LeastOutstandingRouter<>(servers, limitFactory, ewmaAlpha, isDropped, call));
+    }
+
+    private LeastOutstandingRouter(List<String> servers,
+                                   Supplier<ConcurrencyLimit> limitFactory,
+                                   double ewmaAlpha,
+                                   Predicate<Out> isDropped,
+                                   BiFunction<String, In, CompletionStage<Out>> call) {
+        if (servers.isEmpty()) {
+            throw new IllegalArgumentException("At least one server is required");
+        }
+        if (ewmaAlpha <= 0 || ewmaAlpha > 1) {
+            throw new IllegalArgumentException("ewmaAlpha must be in ]0, 1], was " + ewmaAlpha);
+        }
+        this.servers = servers;
+        this.limitFactory = limitFactory;
+        this.ewmaAlpha = ewmaAlpha;
+        this.isDropped = isDropped;
+        this.call = call;
+    }
+
+    @Override
+    public FlowShape<In, Out> shape() {
+        return shape;
+    }
+
+    @Override
+    public Tuple2<GraphStageLogic, RoutingGauges> createLogicAndMaterializedValue(Attributes inheritedAttributes) {
+        final RoutingGauges gauges = new RoutingGauges(servers, ewmaAlpha);
+        return new Tuple2<>(new Logic(gauges), gauges);
+    }
+
+    private final class Completed {
+        private final int server;
+        private final long startNanos;
+        private final Out result;
+        private final Throwable error;
+
+        private Completed(int server, long startNanos, Out result, Throwable error) {
+            this.server = server;
+            this.startNanos = startNanos;
+            this.result = result;
+            this.error = error;
+        }
+    }
+
+    private final class Logic extends GraphStageLogic {
+
+        private final RoutingGauges gauges;
+        private final ConcurrencyLimit[] limits = new ConcurrencyLimit[servers.size()];
+        private final Deque<Out> ready = new ArrayDeque<>();
+        private int inFlight = 0;
+        // Élément reçu alors qu'une limite a baissé depuis la demande : envoyé dès qu'un serveur se libère
+        private In pending;
+        private AsyncCallback<Completed> onCompleted;
+
+        private Logic(RoutingGauges gauges) {
+            super(shape);
+            this.gauges = gauges;
+            for (int i = 0; i < limits.length; i++) {
+                limits[i] = limitFactory.get();
+                gauges.limit(i, limits[i].limit());
+            }
+
+            setHandler(in, new AbstractInHandler() {
+                @Override
+                public void onPush() {
+                    final In element = grab(in);
+                    if (gauges.select() >= 0) {
+                        dispatch(element);
+                    } else {
+                        pending = element;
+                    }
+                    pullIfPossible();
+                }
+
+                @Override
+                public void onUpstreamFinish() {
+                    completeIfDone();
+                }
+            });
+
+            setHandler(out, new AbstractOutHandler() {
+                @Override
+                public void onPull() {
+                    if (!ready.isEmpty()) {
+                        push(out, ready.poll());
+                    }
+                    completeIfDone();
+                    pullIfPossible();
+                }
+            });
+        }
+
+        @Override
+        public void preStart() {
+            onCompleted = createAsyncCallback(this::completed);
+            pull(in);
+        }
+
+        private void dispatch(In element) {
+            final int server = gauges.select();
+            final long start = System.nanoTime();
+            final CompletionStage<Out> future;
+            try {
+                future = call.apply(servers.get(server), element);
+            } catch (RuntimeException e) {
+                failStage(e);
+                return;
+            }
+            gauges.started(server);
+            inFlight++;
+            future.whenComplete((result, error) -> onCompleted.invoke(new Completed(server, start, result, error)));
+        }
+
+        private void completed(Completed completed) {
+            final int server = completed.server;
+            final long rtt = System.nanoTime() - completed.startNanos;
+            final int serverInFlight = gauges.inFlight(server);
+            gauges.finished(server, rtt);
+            inFlight--;
+            if (completed.error != null) {
+                failStage(completed.error);
+                return;
+            }
+            limits[server].onSample(rtt, serverInFlight, completed.result != null && isDropped.test(completed.result));
+            gauges.limit(server, limits[server].limit());
+            if (pending != null && gauges.select() >= 0) {
+                final In element = pending;
+                pending = null;
+                dispatch(element);
+            }
+            if (completed.result != null) {
+                if (isAvailable(out)) {
+                    push(out, completed.result);
+                } else {
+                    ready.add(completed.result);
+                }
+            }
+            completeIfDone();
+            pullIfPossible();
+        }
+
+        private void pullIfPossible() {
+            if (pending == null && !isClosed(in) && !hasBeenPulled(in) && inFlight + ready.size() < gauges.totalLimit() && gauges.select() >= 0) {
+                pull(in);
+            }
+        }
+
+        private void completeIfDone() {
+            if (isClosed(in) && pending == null && inFlight == 0 && ready.isEmpty()) {
+                completeStage();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LeastOutstandingRouter" + servers.mkString("(", ", ", ")");
+    }
+}
@@ -0,0 +1,175 @@
+package libs.stream;
+
+import akka.NotUsed;
+import akka.stream.Attributes;
+import akka.stream.FlowShape;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.javadsl.Flow;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.AsyncCallback;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * {@code mapAsync} dont l'ordre n'est garanti qu'au sein d'une même clé : un résultat sort dès que tous les
+ * éléments précédents de sa clé sont sortis, sans attendre les éléments lents des autres clés.
+ *
+ * Au plus {@code parallelism} éléments sont en cours ou en attente de sortie. Les appels d'une même clé peuvent
+ * s'exécuter en parallèle ; seul leur ordre de sortie est rétabli. Un résultat {@code null} est ignoré,
+ * un échec fait échouer le stream. Un future déjà terminé au retour de {@code f} est traité immédiatement.
+ */
+public final class MapAsyncPartitioned<In, K, Out> extends GraphStage<FlowShape<In, Out>> {
+
+    private final Inlet<In> in = Inlet.create("MapAsyncPartitioned.in");
+    private final Outlet<Out> out = Outlet.create("MapAsyncPartitioned.out");
+    private final FlowShape<In, Out> shape = FlowShape.of(in, out);
+
+    private final int parallelism;
+    private final Function<In, K> partitioner;
+    private final Function<In, CompletionStage<Out>> f;
+
+    public static <In, K, Out> Flow<In, Out, NotUsed> create(int parallelism,
+                                                           Function<In, K> partitioner,
+                                                           Function<In, CompletionStage<Out>> f) {
+        return Flow.fromGraph(new MapAsyncPartitioned<>(parallelism, partitioner, f));
+    }
+
+    private MapAsyncPartitioned(int parallelism, Function<In, K> partitioner, Function<In, CompletionStage<Out>> f) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be >= 1, was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.partitioner = partitioner;
+        this.f = f;
+    }
+
+    @Override
+    public FlowShape<In, Out> shape() {
+        return shape;
+    }
+
+    @Override
+    public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+        return new GraphStageLogic(shape) {
+
+            // Éléments de chaque clé dans l'ordre d'arrivée, terminés ou non
+            private final Map<K, Deque<Slot<K, Out>>> partitions = new HashMap<>();
+            private final Deque<Out> ready = new ArrayDeque<>();
+            private int inFlight = 0;
+            private AsyncCallback<Slot<K, Out>> completed;
+
+            {
+                setHandler(in, new AbstractInHandler() {
+                    @Override
+                    public void onPush() {
+                        final In element = grab(in);
+                        final K key = partitioner.apply(element);
+                        final Slot<K, Out> slot = new Slot<>(key);
+                        partitions.computeIfAbsent(key, k -> new ArrayDeque<>()).add(slot);
+                        inFlight++;
+                        final CompletableFuture<Out> future = f.apply(element).toCompletableFuture();
+                        if (future.isDone()) {
+                            // Déjà terminé : traité sur place, sans repasser par l'acteur du stage
+                            future.whenComplete((result, error) -> {
+                                slot.result = result;
+                                slot.error = error;
+                            });
+                            onCompleted(slot);
+                        } else {
+                            future.whenComplete((result, error) -> {
+                                slot.result = result;
+                                slot.error = error;
+                                completed.invoke(slot);
+                            });
+                        }
+                        pullIfNeeded();
+                    }
+
+                    @Override
+                    public void onUpstreamFinish() {
+                        completeIfDone();
+                    }
+                });
+
+                setHandler(out, new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        if (!ready.isEmpty()) {
+                            push(out, ready.poll());
+                        }
+                        completeIfDone();
+                        pullIfNeeded();
+                    }
+                });
+            }
+
+            @Override
+            public void preStart() {
+                completed = createAsyncCallback(this::onCompleted);
+                pull(in);
+            }
+
+            private void onCompleted(Slot<K, Out> slot) {
+                if (slot.error != null) {
+                    failStage(slot.error);
+                    return;
+                }
+                slot.done = true;
+                final Deque<Slot<K, Out>> partition = partitions.get(slot.key);
+                while (!partition.isEmpty() && partition.peek().done) {
+                    final Slot<K, Out> head = partition.poll();
+                    inFlight--;
+                    if (head.result != null) {
+                        ready.add(head.result);
+                    }
+                }
+                if (partition.isEmpty()) {
+                    partitions.remove(slot.key);
+                }
+                if (isAvailable(out) && !ready.isEmpty()) {
+                    push(out, ready.poll());
+                }
+                completeIfDone();
+                pullIfNeeded();
+            }
+
+            private void pullIfNeeded() {
+                if (inFlight + ready.size() < parallelism && !hasBeenPulled(in) && !isClosed(in)) {
+                    pull(in);
+                }
+            }
+
+            private void completeIfDone() {
+                if (isClosed(in) && inFlight == 0 && ready.isEmpty()) {
+                    completeStage();
+                }
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "MapAsyncPartitioned(" + parallelism + ")";
+    }
+
+    private static final class Slot<K, Out> {
+        private final K key;
+        private Out result;
+        private Throwable error;
+        private boolean done;
+
+        private Slot(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package libs.stream;
+
+import io.vavr.collection.List;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Jauges par serveur d'un {@link LeastOutstandingRouter} : requêtes en vol, limite de concurrence courante
+ * et latence moyenne (EWMA).
+ * Écrites uniquement par le stage, lisibles depuis n'importe quel thread.
+ */
+public final class RoutingGauges {
+
+    private final List<String> servers;
+    private final double alpha;
+    private final AtomicIntegerArray inFlight;
+    private final AtomicIntegerArray limits;
+    private final AtomicLongArray ewmaNanos;
+
+    RoutingGauges(List<String> servers, double alpha) {
+        this.servers = servers;
+        this.alpha = alpha;
+        this.inFlight = new AtomicIntegerArray(servers.size());
+        this.limits = new AtomicIntegerArray(servers.size());
+        this.ewmaNanos = new AtomicLongArray(servers.size());
+    }
+
+    public List<String> servers() {
+        return servers;
+    }
+
+    public int inFlight(int server) {
+        return inFlight.get(server);
+    }
+
+    public int inFlight(String server) {
+        return inFlight(indexOf(server));
+    }
+
+    public int limit(int server) {
+        return limits.get(server);
+    }
+
+    public int limit(String server) {
+        return limit(indexOf(server));
+    }
+
+    public Duration latency(int server) {
+        return Duration.ofNanos(ewmaNanos.get(server));
+    }
+
+    public Duration latency(String server) {
+        return latency(indexOf(server));
+    }
+
+    /**
+     * Choisit le serveur sous sa limite avec le plus petit score (en vol + 1) * latence.
+     * Un serveur jamais mesuré a une latence nulle et passe donc en priorité.
+     *
+     * @return l'index du serveur, ou -1 si tous sont saturés
+     */
+    int select() {
+        int best = -1;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < servers.size(); i++) {
+            final int current = inFlight.get(i);
+            if (current >= limits.get(i)) {
+                continue;
+            }
+            final double score = (current + 1) * (double) ewmaNanos.get(i);
+            if (best < 0 || score < bestScore || (score == bestScore && current < inFlight.get(best))) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    int totalLimit() {
+        int total = 0;
+        for (int i = 0; i < servers.size(); i++) {
+            total += limits.get(i);
+        }
+        return total;
+    }
+
+    void limit(int server, int limit) {
+        limits.set(server, limit);
+    }
+
+    void started(int server) {
+        inFlight.incrementAndGet(server);
+    }
+
+    void finished(int server, long latencyNanos) {
+        inFlight.decrementAndGet(server);
+        final long previous = ewmaNanos.get(server);
+        ewmaNanos.set(server, previous == 0 ? latencyNanos : (long) (previous + alpha * (latencyNanos - previous)));
+    }
+
+    private int indexOf(String server) {
+        final int index = servers.indexOf(server);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown server " + server);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return servers.zipWithIndex()
+                .map(t -> String.format("%s[inFlight=%d, limit=%d, latency=%dms]", t._1, inFlight(t._2), limit(t._2), latency(t._2).toMillis()))
+                .mkString("RoutingGauges(", ", ", ")");
+    }
+}
@@ -0,0 +1,64 @@
+package libs.stream;
+
+/**
+ * Inspiré de TCP Vegas : la file d'attente côté serveur est estimée à partir du ratio entre la latence
+ * minimale observée (sans charge) et la latence courante. La limite monte tant que cette file est courte
+ * et descend dès qu'elle s'allonge, avant même les premiers refus.
+ *
+ * La latence minimale est réinitialisée périodiquement pour suivre un changement durable du serveur.
+ */
+final class VegasLimit implements ConcurrencyLimit {
+
+    private static final int PROBE_EVERY = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private long rttNoLoadNanos = Long.MAX_VALUE;
+    private int samples = 0;
+
+    VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Expected 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int limit() {
+        return (int) limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (++samples % PROBE_EVERY == 0) {
+            rttNoLoadNanos = Long.MAX_VALUE;
+        }
+        if (rttNanos > 0 && rttNanos < rttNoLoadNanos) {
+            rttNoLoadNanos = rttNanos;
+        }
+
+        final double step = Math.max(1, Math.log10(limit));
+        if (dropped) {
+            limit = Math.max(minLimit, limit - step);
+            return;
+        }
+        // la cible n'est pas assez sollicitée pour juger la limite
+        if (inFlight * 2 < limit) {
+            return;
+        }
+        final double queue = limit * (1 - (double) rttNoLoadNanos / Math.max(rttNanos, rttNoLoadNanos));
+        if (queue <= 3 * step) {
+            limit = Math.min(maxLimit, limit + step);
+        } else if (queue >= 6 * step) {
+            limit = Math.max(minLimit, limit - step);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VegasLimit(" + limit() + ")";
+    }
+}
@@ -0,0 +1,142 @@
+package libs.stream;
+
+import akka.NotUsed;
+import akka.stream.Attributes;
+import akka.stream.Inlet;
+import akka.stream.Outlet;
+import akka.stream.SourceShape;
+import akka.stream.UniformFanInShape;
+import akka.stream.javadsl.GraphDSL;
+import akka.stream.javadsl.Source;
+import akka.stream.stage.AbstractInHandler;
+import akka.stream.stage.AbstractOutHandler;
+import akka.stream.stage.GraphStage;
+import akka.stream.stage.GraphStageLogic;
+import io.vavr.collection.List;
+
+import java.util.function.Function;
+
+/**
+ * Zip de N entrées dont la fonction de combinaison reçoit une {@link ElementView} sur le tuple courant, au lieu
+ * de la {@code java.util.List} construite pour chaque élément par {@code Source.zipWithN}.
+ *
+ * Le tuple est un tableau réutilisé : aucune collection n'est allouée par élément. Le stage se termine dès
+ * qu'une entrée est terminée sans élément en attente.
+ */
+public final class ZipWithN<T, O> extends GraphStage<UniformFanInShape<T, O>> {
+
+    private final UniformFanInShape<T, O> shape;
+    private final Function<ElementView<T>, O> combiner;
+
+    public static <T, O> Source<O, NotUsed> create(Function<ElementView<T>, O> combiner, List<? extends Source<T, ?>> sources) {
+        if (sources.isEmpty()) {
+            return Source.empty();
+        }
+        return Source.fromGraph(GraphDSL.create(builder -> {
+            final UniformFanInShape<T, O> zip = builder.add(new ZipWithN<>(sources.size(), combiner));
+            sources.zipWithIndex().forEach(t -> builder.from(builder.add(t._1)).toInlet(zip.in(t._2)));
+            return SourceShape.of(zip.out());
+        }));
+    }
+
+    public ZipWithN(int n, Function<ElementView<T>, O> combiner) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be >= 1, was " + n);
+        }
+        @SuppressWarnings("unchecked")
+        final Inlet<T>[] inlets = (Inlet<T>[]) new Inlet<?>[n];
+        for (int i = 0; i < n; i++) {
+            inlets[i] = Inlet.create("ZipWithN.in" + i);
+        }
+        this.shape = new UniformFanInShape<>(Outlet.create("ZipWithN.out"), inlets);
+        this.combiner = combiner;
+    }
+
+    @Override
+    public UniformFanInShape<T, O> shape() {
+        return shape;
+    }
+
+    @Override
+    public GraphStageLogic createLogic(Attributes inheritedAttributes) {
+        final int n = shape.n();
+        return new GraphStageLogic(shape) {
+
+            private final Object[] tuple = new Object[n];
+            private final ElementView<T> view = new ElementView<T>() {
+                @Override
+                public int size() {
+                    return n;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public T get(int index) {
+                    return (T) tuple[index];
+                }
+            };
+            private int pending = n;
+            private boolean finishing = false;
+
+            {
+                for (int i = 0; i < n; i++) {
+                    final Inlet<T> in = shape.in(i);
+                    final int index = i;
+                    setHandler(in, new AbstractInHandler() {
+                        @Override
+                        public void onPush() {
+                            tuple[index] = grab(in);
+                            if (--pending == 0) {
+                                emit();
+                            }
+                        }
+
+                        @Override
+                        public void onUpstreamFinish() {
+                            if (tuple[index] == null) {
+                                completeStage();
+                            } else {
+                                finishing = true;
+                            }
+                        }
+                    });
+                }
+
+                setHandler(shape.out(), new AbstractOutHandler() {
+                    @Override
+                    public void onPull() {
+                        emit();
+                    }
+                });
+            }
+
+            @Override
+            public void preStart() {
+                for (int i = 0; i < n; i++) {
+                    pull(shape.in(i));
+                }
+            }
+
+            private void emit() {
+                if (pending > 0 || !isAvailable(shape.out())) {
+                    return;
+                }
+                push(shape.out(), combiner.apply(view));
+                if (finishing) {
+                    completeStage();
+                    return;
+                }
+                pending = n;
+                for (int i = 0; i < n; i++) {
+                    tuple[i] = null;
+                    pull(shape.in(i));
+                }
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "ZipWithN(" + shape.n() + ")";
+    }
+}
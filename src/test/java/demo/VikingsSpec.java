@@ -0,0 +1,80 @@
+package demo;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.testkit.javadsl.TestKit;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigValueFactory;
+import io.vavr.collection.List;
+import libs.elastic.BulkClients;
+import libs.elastic.StubBulkServer;
+import libs.metrics.HdrMetricsRegistry;
+import org.junit.jupiter.api.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import static com.typesafe.config.ConfigFactory.load;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Vikings")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class VikingsSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("Vikings");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("tous les documents arrivent malgré un serveur lent et un serveur qui refuse des items")
+    @Test
+    @Order(1)
+    public void indexesThroughFaultyServers() throws Exception {
+        final Path directory = Files.createTempDirectory("vikings");
+        final Path csv = directory.resolve("vikings.csv");
+        Files.write(csv, List.of("Name;Place").appendAll(List.range(0, 5000).map(i -> "Viking " + i + ";Place " + i % 13)));
+
+        final StubBulkServer.Settings settings = StubBulkServer.Settings.acceptAll();
+        final List<StubBulkServer> servers = List.of(
+                StubBulkServer.start(settings.withLatency(StubBulkServer.Latency.exponential(Duration.ofMillis(30))),
+                        system.scheduler(), system.dispatcher()),
+                StubBulkServer.start(settings.withRejectRate(0.2).withItemFailures(0.05, 429).withSeed(3),
+                        system.scheduler(), system.dispatcher()));
+
+        final Config config = load().getConfig("vikings")
+                .withValue("servers", ConfigValueFactory.fromIterable(servers.map(StubBulkServer::address).toJavaList()))
+                .withValue("bulk.max-documents", ConfigValueFactory.fromAnyRef(250))
+                .withValue("retry.min-backoff", ConfigValueFactory.fromAnyRef("10ms"))
+                .withValue("retry.max-backoff", ConfigValueFactory.fromAnyRef("100ms"))
+                .withValue("retry.max-retries", ConfigValueFactory.fromAnyRef(20))
+                .withValue("retry.dead-letter-file", ConfigValueFactory.fromAnyRef(directory.resolve("dead-letters.ndjson").toString()))
+                .withValue("checkpoint.file", ConfigValueFactory.fromAnyRef(directory.resolve("checkpoint.json").toString()));
+
+        try (BulkClients clients = BulkClients.fromConfig(servers.map(StubBulkServer::address), config.getConfig("http"), mat)) {
+            Vikings.index(csv, config, clients, system, mat, new HdrMetricsRegistry(), outcome -> { })
+                    .toCompletableFuture().get(1, TimeUnit.MINUTES);
+        } finally {
+            servers.forEach(StubBulkServer::close);
+        }
+
+        assertThat(servers.map(StubBulkServer::documents).sum().longValue()).isEqualTo(5000);
+        assertThat(servers.get(1).rejectedRequests() + servers.get(1).failedItems()).isPositive();
+        assertThat(Files.size(directory.resolve("dead-letters.ndjson"))).isZero();
+        assertThat(Files.exists(directory.resolve("checkpoint.json"))).isFalse();
+
+        Files.walk(directory).sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+    }
+}
@@ -0,0 +1,96 @@
+package libs;
+
+import akka.util.ByteString;
+import akka.util.ByteStringBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Json")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class JsonSpec {
+
+    public static final class Viking {
+        public String name;
+        public String place;
+        public List<String> raids;
+
+        public Viking() {
+        }
+
+        Viking(String name, String place, List<String> raids) {
+            this.name = name;
+            this.place = place;
+            this.raids = raids;
+        }
+    }
+
+    @DisplayName("readers et writers sont créés une fois par type")
+    @Test
+    @Order(1)
+    public void readersAndWritersAreCached() {
+        assertThat(Json.reader(Viking.class)).isSameAs(Json.reader(Viking.class));
+        assertThat(Json.writer(Viking.class)).isSameAs(Json.writer(Viking.class));
+        assertThat(Json.reader(JsonNode.class)).isNotSameAs(Json.reader(Viking.class));
+    }
+
+    @DisplayName("toByteString puis parse redonnent le même arbre, en UTF-8")
+    @Test
+    @Order(2)
+    public void byteStringRoundTrip() {
+        final ObjectNode node = Json.newObject();
+        node.put("name", "Ragnar Loðbrók");
+        node.put("place", "Kattegat");
+        node.set("raids", Json.newArray().add("Lindisfarne").add("Paris"));
+
+        final ByteString bytes = Json.toByteString(node);
+
+        assertThat(bytes.utf8String()).isEqualTo(Json.stringify(node));
+        assertThat(bytes.toArray()).isEqualTo(Json.stringify(node).getBytes(StandardCharsets.UTF_8));
+        assertThat(Json.parse(bytes)).isEqualTo(node);
+    }
+
+    @DisplayName("fromJson relit un objet écrit par stringify ou toByteString, champs inconnus ignorés")
+    @Test
+    @Order(3)
+    public void objectRoundTrip() {
+        final Viking ragnar = new Viking("Ragnar", "Kattegat", List.of("Lindisfarne", "Paris"));
+
+        final Viking fromString = Json.fromJson(Json.stringify(ragnar), Viking.class);
+        final Viking fromTree = Json.fromJson(Json.parse(Json.toByteString(ragnar)), Viking.class);
+        final Viking withUnknown = Json.fromJson("{\"name\":\"Lagertha\",\"ship\":\"Drakkar\"}", Viking.class);
+
+        for (Viking viking : java.util.List.of(fromString, fromTree)) {
+            assertThat(viking.name).isEqualTo("Ragnar");
+            assertThat(viking.place).isEqualTo("Kattegat");
+            assertThat(viking.raids).isEqualTo(List.of("Lindisfarne", "Paris"));
+        }
+        assertThat(withUnknown.name).isEqualTo("Lagertha");
+        assertThat(withUnknown.place).isNull();
+        // NON_ABSENT : les champs null ne sont pas écrits
+        assertThat(Json.stringify(withUnknown)).isEqualTo("{\"name\":\"Lagertha\"}");
+    }
+
+    @DisplayName("generator écrit en streaming sur le mapper partagé")
+    @Test
+    @Order(4)
+    public void generatorWritesToStream() throws Exception {
+        final ByteStringBuilder builder = ByteString.createBuilder();
+        try (JsonGenerator generator = Json.generator(builder.asOutputStream())) {
+            generator.writeStartObject();
+            generator.writeStringField("name", "Björn");
+            generator.writeNumberField("raids", 3);
+            generator.writeEndObject();
+        }
+
+        final JsonNode parsed = Json.parse(builder.result());
+        assertThat(parsed.path("name").asText()).isEqualTo("Björn");
+        assertThat(parsed.path("raids").asInt()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,110 @@
+package libs.actor;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.PoisonPill;
+import akka.actor.Props;
+import akka.testkit.javadsl.TestKit;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BatchingMailbox")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BatchingMailboxSpec {
+
+    private static ActorSystem system;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("BatchingMailbox");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    /**
+     * Renvoie la taille de chaque lot, puis chaque message reçu.
+     */
+    public static class Recorder extends BatchingActor {
+
+        private final ActorRef probe;
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+
+        static Props props(ActorRef probe, CountDownLatch started, CountDownLatch release) {
+            return Props.create(Recorder.class, () -> new Recorder(probe, started, release)).withMailbox("batching-mailbox");
+        }
+
+        private Recorder(ActorRef probe, CountDownLatch started, CountDownLatch release) {
+            this.probe = probe;
+            this.started = started;
+            this.release = release;
+        }
+
+        @Override
+        protected void onBatch(Batch batch) throws Exception {
+            probe.tell(batch.size(), self());
+            batch.forEach((message, sender) -> {
+                if ("block".equals(message)) {
+                    started.countDown();
+                    release.await(3, TimeUnit.SECONDS);
+                }
+                sender.tell(message, self());
+            });
+        }
+    }
+
+    @DisplayName("les messages en attente sont remis en un seul lot, dans l'ordre")
+    @Test
+    @Order(1)
+    public void drainsPendingMessagesInOneBatch() throws Exception {
+        final TestKit probe = new TestKit(system);
+        final TestKit sizes = new TestKit(system);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ActorRef recorder = system.actorOf(Recorder.props(sizes.getRef(), started, release));
+
+        recorder.tell("block", probe.getRef());
+        assertThat(started.await(3, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 10; i++) {
+            recorder.tell(i, probe.getRef());
+        }
+        release.countDown();
+
+        sizes.expectMsg(1);
+        sizes.expectMsg(10);
+        probe.expectMsg("block");
+        for (int i = 0; i < 10; i++) {
+            probe.expectMsg(i);
+        }
+    }
+
+    @DisplayName("une liste est dépliée sur place et PoisonPill n'est pas regroupé")
+    @Test
+    @Order(2)
+    public void expandsListsAndKeepsAutoReceivedMessages() {
+        final TestKit probe = new TestKit(system);
+        final TestKit sizes = new TestKit(system);
+        final ActorRef recorder = system.actorOf(Recorder.props(sizes.getRef(), new CountDownLatch(1), new CountDownLatch(0)));
+        probe.watch(recorder);
+
+        recorder.tell(Arrays.asList("a", "b", "c"), probe.getRef());
+        recorder.tell(PoisonPill.getInstance(), ActorRef.noSender());
+        recorder.tell("after", probe.getRef());
+
+        probe.expectMsg("a");
+        probe.expectMsg("b");
+        probe.expectMsg("c");
+        probe.expectTerminated(Duration.ofSeconds(3), recorder);
+        probe.expectNoMessage(Duration.ofMillis(200));
+    }
+}
@@ -0,0 +1,93 @@
+package libs.actor;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.UnhandledMessage;
+import akka.testkit.javadsl.TestKit;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DispatchTable")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class DispatchTableSpec {
+
+    private static ActorSystem system;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("DispatchTable");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("le premier type déclaré qui correspond l'emporte, comme receiveBuilder")
+    @Test
+    @Order(1)
+    public void firstMatchingTypeWins() throws Exception {
+        final List<String> calls = new ArrayList<>();
+        final DispatchTable table = DispatchTable.builder()
+                .match(Integer.class, i -> calls.add("int " + i))
+                .match(Number.class, n -> calls.add("number " + n))
+                .match(CharSequence.class, s -> calls.add("text " + s))
+                .build();
+
+        assertThat(table.dispatch(1)).isTrue();
+        assertThat(table.dispatch(2L)).isTrue();
+        assertThat(table.dispatch("three")).isTrue();
+        assertThat(table.dispatch(new Object())).isFalse();
+
+        assertThat(calls).containsExactly("int 1", "number 2", "text three");
+        assertThat(table.handles(StringBuilder.class)).isTrue();
+    }
+
+    @DisplayName("des tables aux mêmes types partagent la résolution mais gardent chacune leurs handlers")
+    @Test
+    @Order(2)
+    public void tablesWithSameTypesKeepOwnHandlers() throws Exception {
+        final List<String> calls = new ArrayList<>();
+        final DispatchTable first = DispatchTable.builder()
+                .match(Integer.class, i -> calls.add("first " + i))
+                .match(CharSequence.class, s -> calls.add("first " + s))
+                .build();
+        final DispatchTable second = DispatchTable.builder()
+                .match(Integer.class, i -> calls.add("second " + i))
+                .match(CharSequence.class, s -> calls.add("second " + s))
+                .build();
+
+        first.dispatch(1);
+        second.dispatch(2);
+        second.dispatch("b");
+        first.dispatch("a");
+
+        assertThat(calls).containsExactly("first 1", "second 2", "second b", "first a");
+    }
+
+    @DisplayName("la calculatrice conserve son état et renvoie les messages inconnus dans unhandled")
+    @Test
+    @Order(3)
+    public void calculatorActor() {
+        final TestKit probe = new TestKit(system);
+        final TestKit unhandled = new TestKit(system);
+        system.eventStream().subscribe(unhandled.getRef(), UnhandledMessage.class);
+        final ActorRef calculator = system.actorOf(Calculator.props());
+
+        calculator.tell(new Calculator.Add(2), ActorRef.noSender());
+        calculator.tell(new Calculator.Add(3), ActorRef.noSender());
+        calculator.tell(Calculator.GetState.INSTANCE, probe.getRef());
+        calculator.tell(new Calculator.Mult(6), ActorRef.noSender());
+        calculator.tell(Calculator.GetState.INSTANCE, probe.getRef());
+        calculator.tell("unknown", probe.getRef());
+
+        probe.expectMsg(new Calculator.State(5));
+        probe.expectMsg(new Calculator.State(30));
+        assertThat(unhandled.expectMsgClass(UnhandledMessage.class).getMessage()).isEqualTo("unknown");
+    }
+}
@@ -0,0 +1,103 @@
+package libs.aggregate;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
+import org.junit.jupiter.api.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("KeyedAggregates")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class KeyedAggregatesSpec {
+
+    private static ActorSystem system;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("KeyedAggregates");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("somme, produit et comptage par clé")
+    @Test
+    @Order(1)
+    public void aggregatesPerKey() {
+        final KeyedAggregates sum = new KeyedAggregates(Aggregation.SUM, 0);
+        final KeyedAggregates product = new KeyedAggregates(Aggregation.PRODUCT, 0);
+        final KeyedAggregates count = new KeyedAggregates(Aggregation.COUNT, 0);
+        for (KeyedAggregates aggregates : new KeyedAggregates[]{sum, product, count}) {
+            aggregates.apply(1, 2);
+            aggregates.apply(1, 3);
+            aggregates.apply(2, 6);
+        }
+
+        assertThat(sum.get(1)).isEqualTo(5);
+        assertThat(product.get(1)).isEqualTo(6);
+        assertThat(count.get(1)).isEqualTo(2);
+        assertThat(sum.count(2)).isEqualTo(1);
+        assertThat(sum.get(3)).isZero();
+        assertThat(product.get(3)).isEqualTo(1);
+        assertThat(sum.contains(3)).isFalse();
+    }
+
+    @DisplayName("grandit au-delà de la capacité prévue et reste exact")
+    @Test
+    @Order(2)
+    public void growsBeyondExpectedKeys() {
+        final KeyedAggregates aggregates = new KeyedAggregates(Aggregation.MAX, 10);
+        final Map<Long, Double> expected = new HashMap<>();
+        final long[] keys = new long[100_000];
+        final double[] values = new double[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (i * 7919L) % 30_011;
+            values[i] = i;
+            expected.merge(keys[i], values[i], Math::max);
+        }
+
+        aggregates.applyAll(keys, values, 0, keys.length);
+
+        assertThat(aggregates.size()).isEqualTo(expected.size());
+        final AggregatesSnapshot snapshot = aggregates.snapshot();
+        assertThat(snapshot.size()).isEqualTo(expected.size());
+        snapshot.forEach((key, count, value) -> assertThat(value).isEqualTo(expected.get(key)));
+    }
+
+    @DisplayName("le snapshot ne suit pas les mises à jour suivantes")
+    @Test
+    @Order(3)
+    public void snapshotIsACopy() {
+        final KeyedAggregates aggregates = new KeyedAggregates(Aggregation.SUM, 4);
+        aggregates.apply(42, 1);
+        final AggregatesSnapshot snapshot = aggregates.snapshot();
+        aggregates.apply(42, 1);
+
+        assertThat(snapshot.value(0)).isEqualTo(1);
+        assertThat(aggregates.get(42)).isEqualTo(2);
+    }
+
+    @DisplayName("l'acteur applique les évènements et répond avec un snapshot")
+    @Test
+    @Order(4)
+    public void aggregatorActor() {
+        final TestKit probe = new TestKit(system);
+        final ActorRef aggregator = system.actorOf(Aggregator.props(Aggregation.SUM, 16));
+
+        aggregator.tell(new Aggregator.Apply(1, 2), ActorRef.noSender());
+        aggregator.tell(new Aggregator.ApplyAll(new long[]{1, 2, 2}, new double[]{3, 4, 5}, 3), ActorRef.noSender());
+        aggregator.tell(Aggregator.GetSnapshot.INSTANCE, probe.getRef());
+
+        final AggregatesSnapshot snapshot = probe.expectMsgClass(AggregatesSnapshot.class);
+        final Map<Long, Double> values = new HashMap<>();
+        snapshot.forEach((key, count, value) -> values.put(key, value));
+        assertThat(values).containsEntry(1L, 5.0).containsEntry(2L, 9.0);
+    }
+}
@@ -0,0 +1,103 @@
+package libs.cache;
+
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Cache")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CacheSpec {
+
+    @DisplayName("lru : évince la clé la moins récemment lue")
+    @Test
+    @Order(1)
+    public void lruEvictsLeastRecentlyRead() {
+        final Cache<String, Integer> cache = Cache.<String, Integer>lru(2, Duration.ZERO).get();
+
+        assertThat(cache.put("a", 1)).isZero();
+        assertThat(cache.put("b", 2)).isZero();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.put("c", 3)).isEqualTo(1);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @DisplayName("une entrée expire après le ttl")
+    @Test
+    @Order(2)
+    public void expiresAfterTtl() {
+        final AtomicLong now = new AtomicLong();
+        final Cache<String, Integer> lru = new LruCache<>(10, Duration.ofSeconds(10), now::get);
+        final Cache<String, Integer> tinyLfu = new TinyLfuCache<>(10, Duration.ofSeconds(10), now::get);
+
+        for (Cache<String, Integer> cache : java.util.List.of(lru, tinyLfu)) {
+            now.set(0);
+            cache.put("a", 1);
+            now.set(Duration.ofSeconds(9).toNanos());
+            assertThat(cache.get("a")).isEqualTo(1);
+            now.set(Duration.ofSeconds(10).toNanos());
+            assertThat(cache.get("a")).isNull();
+            assertThat(cache.size()).isZero();
+        }
+    }
+
+    @DisplayName("tiny-lfu : un balayage de clés uniques ne chasse pas les clés fréquentes")
+    @Test
+    @Order(3)
+    public void tinyLfuResistsScan() {
+        final Cache<String, Integer> tinyLfu = Cache.<String, Integer>tinyLfu(100, Duration.ZERO).get();
+        final Cache<String, Integer> lru = Cache.<String, Integer>lru(100, Duration.ZERO).get();
+
+        for (Cache<String, Integer> cache : java.util.List.of(tinyLfu, lru)) {
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < 50; i++) {
+                    if (cache.get("hot-" + i) == null) {
+                        cache.put("hot-" + i, i);
+                    }
+                }
+            }
+            for (int i = 0; i < 1000; i++) {
+                if (cache.get("scan-" + i) == null) {
+                    cache.put("scan-" + i, i);
+                }
+            }
+        }
+
+        assertThat(countPresent(tinyLfu)).isEqualTo(50);
+        assertThat(countPresent(lru)).isZero();
+        assertThat(tinyLfu.size()).isLessThanOrEqualTo(100);
+    }
+
+    @DisplayName("fromConfig lit la politique, la taille et le ttl")
+    @Test
+    @Order(4)
+    public void fromConfig() {
+        final Cache<String, Integer> cache = Cache.<String, Integer>fromConfig(ConfigFactory.parseString(
+                "policy = \"lru\", max-entries = 1, ttl = 0")).get();
+
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        assertThat(cache).isInstanceOf(LruCache.class);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo(2);
+        assertThat(Cache.fromConfig(ConfigFactory.load().getConfig("cache")).get()).isInstanceOf(TinyLfuCache.class);
+    }
+
+    private static int countPresent(Cache<String, Integer> cache) {
+        int present = 0;
+        for (int i = 0; i < 50; i++) {
+            // les clés absentes ne sont pas remises en cache
+            if (cache.get("hot-" + i) != null) {
+                present++;
+            }
+        }
+        return present;
+    }
+}
@@ -0,0 +1,104 @@
+package libs.cache;
+
+import akka.actor.ActorSystem;
+import akka.japi.Pair;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.testkit.javadsl.TestKit;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CachedLookup")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CachedLookupSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("CachedLookup");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("un seul chargement par clé, y compris pour les demandes simultanées")
+    @Test
+    @Order(1)
+    public void coalescesConcurrentMisses() throws Exception {
+        final AtomicInteger loads = new AtomicInteger();
+        final List<String> places = List.range(0, 200).map(i -> "Place " + i % 5);
+
+        final Pair<CacheStats, CompletionStage<java.util.List<String>>> run = Source.from(places)
+                .viaMat(CachedLookup.create(16, Cache.<String, String>tinyLfu(100, Duration.ZERO), place -> {
+                    loads.incrementAndGet();
+                    return CompletableFuture.supplyAsync(
+                            place::toUpperCase,
+                            CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS));
+                }), Keep.right())
+                .toMat(Sink.seq(), Keep.both())
+                .run(mat);
+
+        final List<String> result = List.ofAll(run.second().toCompletableFuture().get(10, TimeUnit.SECONDS));
+
+        assertThat(result).isEqualTo(places.map(String::toUpperCase));
+        assertThat(loads.get()).isEqualTo(5);
+        assertThat(run.first().misses()).isEqualTo(5);
+        assertThat(run.first().coalesced()).isPositive();
+        assertThat(run.first().requests()).isEqualTo(200);
+        assertThat(run.first().hitRate()).isEqualTo(195 / 200.0);
+    }
+
+    @DisplayName("enrich associe chaque élément à la valeur de sa clé et compte les évictions")
+    @Test
+    @Order(2)
+    public void enrichKeepsOrderAndCountsEvictions() throws Exception {
+        final Pair<CacheStats, CompletionStage<java.util.List<String>>> run = Source.range(1, 20)
+                .viaMat(CachedLookup.enrich(4, Cache.<Integer, Integer>lru(3, Duration.ZERO),
+                        (Integer i) -> i % 4,
+                        k -> CompletableFuture.completedFuture(k * 10),
+                        (i, v) -> i + "=" + v), Keep.right())
+                .toMat(Sink.seq(), Keep.both())
+                .run(mat);
+
+        final List<String> result = List.ofAll(run.second().toCompletableFuture().get(3, TimeUnit.SECONDS));
+
+        assertThat(result).isEqualTo(List.rangeClosed(1, 20).map(i -> i + "=" + (i % 4) * 10));
+        assertThat(run.first().misses()).isEqualTo(20);
+        assertThat(run.first().evictions()).isEqualTo(17);
+    }
+
+    @DisplayName("l'échec d'un chargement fait échouer le stream")
+    @Test
+    @Order(3)
+    public void failureFailsStream() {
+        final CompletionStage<java.util.List<Integer>> result = Source.range(1, 10)
+                .via(CachedLookup.<Integer, Integer>create(2, Cache.lru(10, Duration.ZERO), i -> {
+                    final CompletableFuture<Integer> future = new CompletableFuture<>();
+                    if (i == 5) {
+                        future.completeExceptionally(new IllegalStateException("boom"));
+                    } else {
+                        future.complete(i);
+                    }
+                    return future;
+                }))
+                .runWith(Sink.seq(), mat);
+
+        Assertions.assertThrows(Exception.class, () -> result.toCompletableFuture().get(3, TimeUnit.SECONDS));
+    }
+}
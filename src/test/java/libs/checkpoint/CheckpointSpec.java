@@ -0,0 +1,57 @@
+package libs.checkpoint;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Checkpoint")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CheckpointSpec {
+
+    @DisplayName("la position n'avance que sur des éléments acquittés sans trou")
+    @Test
+    @Order(1)
+    public void watermarkWaitsForGaps() {
+        final Watermark watermark = new Watermark(0, 10);
+
+        assertThat(watermark.acknowledge(1, 200)).isFalse();
+        assertThat(watermark.acknowledge(2, 300)).isFalse();
+        assertThat(watermark.offset()).isEqualTo(10);
+        assertThat(watermark.pending()).isEqualTo(2);
+
+        assertThat(watermark.acknowledge(0, 100)).isTrue();
+        assertThat(watermark.offset()).isEqualTo(300);
+        assertThat(watermark.last()).isEqualTo(2);
+        assertThat(watermark.pending()).isZero();
+
+        assertThat(watermark.acknowledge(1, 200)).isFalse();
+        assertThat(watermark.offset()).isEqualTo(300);
+    }
+
+    @DisplayName("le fichier relit le dernier point enregistré et ignore celui d'une autre source")
+    @Test
+    @Order(2)
+    public void fileRoundTrip() throws Exception {
+        final Path directory = Files.createTempDirectory("checkpoint");
+        final CheckpointFile file = new CheckpointFile(directory.resolve("checkpoint.json"));
+        try {
+            assertThat(file.load().isEmpty()).isTrue();
+
+            file.save(new Checkpoint("/data/a.csv", 100, 3));
+            file.save(new Checkpoint("/data/a.csv", 250, 4));
+
+            assertThat(file.load("/data/a.csv").get()).isEqualTo(new Checkpoint("/data/a.csv", 250, 4));
+            assertThat(file.load("/data/b.csv").isEmpty()).isTrue();
+            assertThat(Files.list(directory).count()).isEqualTo(1);
+
+            file.delete();
+            assertThat(file.load().isEmpty()).isTrue();
+        } finally {
+            file.delete();
+            Files.deleteIfExists(directory);
+        }
+    }
+}
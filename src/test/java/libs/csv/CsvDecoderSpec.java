@@ -0,0 +1,75 @@
+package libs.csv;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.testkit.javadsl.TestKit;
+import akka.util.ByteString;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CsvDecoder")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CsvDecoderSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("CsvDecoder");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("lit les champs par nom grâce à l'en-tête")
+    @Test
+    @Order(1)
+    public void header() throws Exception {
+        final java.util.List<CsvRow> rows = decode(CsvFormat.DEFAULT.withSeparator(';').withHeader(),
+                "Name;Place", "Ragnar;Kattegat", "", "Rollo;Normandie\r");
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).field("Name")).isEqualTo("Ragnar");
+        assertThat(rows.get(1).field("Place")).isEqualTo("Normandie");
+    }
+
+    @DisplayName("gère les quotes, les quotes doublées et les champs vides")
+    @Test
+    @Order(2)
+    public void quoting() throws Exception {
+        final CsvRow row = decode(CsvFormat.DEFAULT, "\"a,b\",\"say \"\"hi\"\"\",,x,").get(0);
+
+        assertThat(List.range(0, row.size()).map(row::field))
+                .containsExactly("a,b", "say \"hi\"", "", "x", "");
+        assertThat(row.fieldBytes(0).utf8String()).isEqualTo("a,b");
+    }
+
+    @DisplayName("les quotes doublées ne sont réduites que dans le champ entre quotes qui les contient")
+    @Test
+    @Order(3)
+    public void escapingIsPerField() throws Exception {
+        final CsvRow row = decode(CsvFormat.DEFAULT, "\"say \"\"hi\"\"\",a\"\"b,\"c\"").get(0);
+
+        assertThat(List.range(0, row.size()).map(row::field))
+                .containsExactly("say \"hi\"", "a\"\"b", "c");
+        assertThat(row.fieldBytes(0).utf8String()).isEqualTo("say \"\"hi\"\"");
+    }
+
+    private java.util.List<CsvRow> decode(CsvFormat format, String... lines) throws Exception {
+        return Source.from(List.of(lines).map(ByteString::fromString))
+                .via(CsvDecoder.create(format))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,100 @@
+package libs.csv;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.testkit.javadsl.TestKit;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("CsvFileSource")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class CsvFileSourceSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+    private static Path csv;
+
+    @BeforeAll
+    public static void setUp() throws Exception {
+        system = ActorSystem.create("CsvFileSource");
+        mat = ActorMaterializer.create(system);
+        csv = Files.createTempFile("vikings", ".csv");
+        Files.write(csv, List.of("Name;Place").appendAll(List.range(0, 1000).map(i -> "viking" + i + ";place" + i % 7)));
+    }
+
+    @AfterAll
+    public static void tearDown() throws Exception {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+        Files.deleteIfExists(csv);
+    }
+
+    @DisplayName("découpe en plages alignées et conserve l'ordre")
+    @Test
+    @Order(1)
+    public void ordered() throws Exception {
+        final List<String> names = read(true);
+
+        assertThat(names).containsExactlyElementsOf(List.range(0, 1000).map(i -> "viking" + i));
+    }
+
+    @DisplayName("sans ordre, toutes les lignes sont lues une seule fois")
+    @Test
+    @Order(2)
+    public void unordered() throws Exception {
+        final List<String> names = read(false);
+
+        assertThat(names).containsExactlyInAnyOrderElementsOf(List.range(0, 1000).map(i -> "viking" + i));
+    }
+
+    @DisplayName("reprend à la position de fin d'une ligne déjà lue, en-tête compris")
+    @Test
+    @Order(3)
+    public void resumesFromLineEnd() throws Exception {
+        final List<CsvRow> rows = List.ofAll(CsvFileSource.rows(csv, CsvFormat.DEFAULT.withSeparator(';').withHeader(), 100, 4, true, system.dispatcher())
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(5, TimeUnit.SECONDS));
+
+        assertThat(rows.last().end()).isEqualTo(Files.size(csv));
+
+        final List<String> resumed = List.ofAll(CsvFileSource.rows(csv, CsvFormat.DEFAULT.withSeparator(';').withHeader(), 100, 4, true, system.dispatcher(), rows.get(599).end())
+                .map(row -> row.field("Name"))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(5, TimeUnit.SECONDS));
+
+        assertThat(resumed).containsExactlyElementsOf(List.range(600, 1000).map(i -> "viking" + i));
+    }
+
+    @DisplayName("refuse un fichier dont l'en-tête est vide")
+    @Test
+    @Order(4)
+    public void emptyHeader() throws Exception {
+        final Path empty = Files.createTempFile("vikings", ".csv");
+        try {
+            Files.write(empty, List.of("", "viking0;place0"));
+
+            assertThatThrownBy(() -> CsvFileSource.rows(empty, CsvFormat.DEFAULT.withSeparator(';').withHeader(), 100, 4, true, system.dispatcher())
+                    .runWith(Sink.seq(), mat)
+                    .toCompletableFuture().get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Empty CSV header");
+        } finally {
+            Files.deleteIfExists(empty);
+        }
+    }
+
+    private List<String> read(boolean ordered) throws Exception {
+        return List.ofAll(CsvFileSource.rows(csv, CsvFormat.DEFAULT.withSeparator(';').withHeader(), 100, 4, ordered, system.dispatcher())
+                .map(row -> row.field("Name"))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(5, TimeUnit.SECONDS));
+    }
+}
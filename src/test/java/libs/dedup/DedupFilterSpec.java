@@ -0,0 +1,128 @@
+package libs.dedup;
+
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("DedupFilter")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class DedupFilterSpec {
+
+    @DisplayName("exact : oublie les clés les plus anciennes au-delà de max-entries")
+    @Test
+    @Order(1)
+    public void exactEvictsOldest() {
+        final DedupFilter<String> filter = DedupFilter.<String>exact(3, Duration.ZERO, DedupFilter.Expiry.AFTER_WRITE).get();
+
+        assertThat(filter.firstSeen("a")).isTrue();
+        assertThat(filter.firstSeen("b")).isTrue();
+        assertThat(filter.firstSeen("a")).isFalse();
+        assertThat(filter.firstSeen("c")).isTrue();
+        assertThat(filter.firstSeen("d")).isTrue();
+
+        assertThat(filter.firstSeen("b")).isFalse();
+        assertThat(filter.firstSeen("a")).isTrue();
+    }
+
+    @DisplayName("exact after-access : une clé relue survit à l'éviction")
+    @Test
+    @Order(2)
+    public void exactKeepsRecentlyAccessed() {
+        final DedupFilter<String> filter = DedupFilter.<String>exact(3, Duration.ZERO, DedupFilter.Expiry.AFTER_ACCESS).get();
+
+        filter.firstSeen("a");
+        filter.firstSeen("b");
+        filter.firstSeen("c");
+        filter.firstSeen("a");
+        assertThat(filter.firstSeen("d")).isTrue();
+
+        assertThat(filter.firstSeen("a")).isFalse();
+        assertThat(filter.firstSeen("b")).isTrue();
+    }
+
+    @DisplayName("exact : une clé expire après le ttl")
+    @Test
+    @Order(3)
+    public void exactExpiresAfterTtl() {
+        final AtomicLong now = new AtomicLong();
+        final WindowedSet<String> filter = new WindowedSet<>(100, Duration.ofSeconds(10), DedupFilter.Expiry.AFTER_WRITE, now::get);
+
+        filter.firstSeen("a");
+        now.set(Duration.ofSeconds(5).toNanos());
+        filter.firstSeen("b");
+        assertThat(filter.firstSeen("a")).isFalse();
+
+        now.set(Duration.ofSeconds(12).toNanos());
+        assertThat(filter.firstSeen("a")).isTrue();
+        assertThat(filter.firstSeen("b")).isFalse();
+    }
+
+    @DisplayName("exact : reste cohérent après de nombreuses suppressions")
+    @Test
+    @Order(4)
+    public void exactSurvivesChurn() {
+        final DedupFilter<Integer> filter = DedupFilter.<Integer>exact(1000, Duration.ZERO, DedupFilter.Expiry.AFTER_WRITE).get();
+
+        for (int i = 0; i < 100_000; i++) {
+            assertThat(filter.firstSeen(i)).isTrue();
+        }
+        for (int i = 99_000; i < 100_000; i++) {
+            assertThat(filter.firstSeen(i)).isFalse();
+        }
+        assertThat(filter.firstSeen(98_999)).isTrue();
+    }
+
+    @DisplayName("bloom : pas de faux négatif et un taux de faux positifs borné")
+    @Test
+    @Order(5)
+    public void bloomFalsePositiveRate() {
+        final DedupFilter<String> filter = DedupFilter.<String>bloom(1000, 0.01, 1 << 20, Hashing::hash64).get();
+
+        for (int i = 0; i < 20_000; i++) {
+            filter.firstSeen("key-" + i);
+        }
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(filter.firstSeen("key-" + i)).isFalse();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (!filter.firstSeen("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(200);
+    }
+
+    @DisplayName("bloom : la mémoire reste sous max-bytes")
+    @Test
+    @Order(6)
+    public void bloomRespectsMaxBytes() {
+        final ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(1000, 0.01, 16 * 1024, Hashing::hash64);
+
+        for (int i = 0; i < 200_000; i++) {
+            filter.firstSeen("key-" + i);
+        }
+
+        assertThat(filter.memoryBytes()).isLessThanOrEqualTo(16 * 1024);
+        assertThat(filter.firstSeen("key-199999")).isFalse();
+        assertThat(filter.firstSeen("key-0")).isTrue();
+    }
+
+    @DisplayName("fromConfig lit le backend et ses paramètres")
+    @Test
+    @Order(7)
+    public void fromConfig() {
+        final DedupFilter<String> filter = DedupFilter.<String>fromConfig(
+                ConfigFactory.load().getConfig("dedup"),
+                Hashing::hash64).get();
+
+        assertThat(filter).isInstanceOf(WindowedSet.class);
+        assertThat(DedupFilter.<String>fromConfig(
+                ConfigFactory.parseString("backend = bloom").withFallback(ConfigFactory.load().getConfig("dedup")),
+                Hashing::hash64).get()).isInstanceOf(ScalableBloomFilter.class);
+    }
+}
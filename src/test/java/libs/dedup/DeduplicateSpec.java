@@ -0,0 +1,67 @@
+package libs.dedup;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.testkit.javadsl.TestKit;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Deduplicate")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class DeduplicateSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("Deduplicate");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("le flow ne garde que la première occurrence de chaque clé")
+    @Test
+    @Order(1)
+    public void flowRemovesDuplicates() throws Exception {
+        final java.util.List<String> result = Source.from(Arrays.asList("a1", "b1", "a2", "c1", "b2"))
+                .via(Deduplicate.create(
+                        DedupFilter.<Character>exact(10, Duration.ZERO, DedupFilter.Expiry.AFTER_WRITE),
+                        s -> s.charAt(0)))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(result).containsExactly("a1", "b1", "c1");
+    }
+
+    @DisplayName("l'acteur transmet chaque message une seule fois")
+    @Test
+    @Order(2)
+    public void actorRemovesDuplicates() {
+        final TestKit probe = new TestKit(system);
+        final ActorRef deduplicator = system.actorOf(Deduplicator.props(
+                String.class, DedupFilter.bloom(100, 0.001, 1 << 16, Hashing::hash64), probe.getRef()));
+
+        for (String msg : Arrays.asList("MSG1", "MSG1", "MSG2", "MSG2", "MSG2", "MSG3")) {
+            deduplicator.tell(msg, ActorRef.noSender());
+        }
+
+        probe.expectMsg("MSG1");
+        probe.expectMsg("MSG2");
+        probe.expectMsg("MSG3");
+        probe.expectNoMessage(Duration.ofMillis(300));
+    }
+}
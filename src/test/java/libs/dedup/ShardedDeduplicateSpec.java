@@ -0,0 +1,65 @@
+package libs.dedup;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.testkit.javadsl.TestKit;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ShardedDeduplicate")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ShardedDeduplicateSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("ShardedDeduplicate");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    private static final List<Integer> INPUT = List.range(0, 20_000).map(i -> i % 7_000);
+
+    @DisplayName("ordonné : même résultat qu'une déduplication sur un seul flux")
+    @Test
+    @Order(1)
+    public void orderedKeepsInputOrder() throws Exception {
+        final java.util.List<Integer> result = Source.from(INPUT)
+                .via(ShardedDeduplicate.create(4, DedupFilter.<Integer>exact(10_000, Duration.ZERO, DedupFilter.Expiry.AFTER_WRITE), i -> i, true))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertThat(result).containsExactlyElementsOf(List.range(0, 7_000));
+    }
+
+    @DisplayName("non ordonné : mêmes éléments, l'ordre par clé est conservé")
+    @Test
+    @Order(2)
+    public void unorderedKeepsPerKeyOrder() throws Exception {
+        final java.util.List<String> result = Source.from(INPUT)
+                .map(i -> i + "-" + (i % 3))
+                .via(ShardedDeduplicate.create(4, DedupFilter.<String>exact(10_000, Duration.ZERO, DedupFilter.Expiry.AFTER_WRITE), s -> s, false))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertThat(result).hasSize(7_000).doesNotHaveDuplicates();
+        final List<String> sameShard = List.ofAll(result)
+                .filter(s -> ShardedDeduplicate.shardOf(s, 4) == ShardedDeduplicate.shardOf("0-0", 4));
+        assertThat(sameShard.map(s -> Integer.parseInt(s.split("-")[0])).sliding(2).forAll(p -> p.size() < 2 || p.get(0) < p.get(1)))
+                .isTrue();
+    }
+}
@@ -0,0 +1,85 @@
+package libs.dispatch;
+
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
+import com.typesafe.config.ConfigFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SelfTuningDispatcher")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class SelfTuningDispatcherSpec {
+
+    private static ActorSystem system;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("SelfTuningDispatcher", ConfigFactory.parseString(
+                "self-tuning-dispatcher.self-tuning { initial-threads = 2, tune-interval = 100ms }")
+                .withFallback(ConfigFactory.load()));
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    private final TuningPolicy policy = new TuningPolicy(1, 64, 1, 64, MILLISECONDS.toNanos(5), 2);
+
+    @DisplayName("threads : suit la part bloquante, sans plus que doubler par pas")
+    @Test
+    @Order(1)
+    public void threadsFollowBlockingRatio() {
+        assertThat(policy.nextThreads(4, 4, 0, 0, 0.9)).isEqualTo(8);
+        assertThat(policy.nextThreads(8, 8, 0, 0, 0.9)).isEqualTo(16);
+        assertThat(policy.nextThreads(20, 20, 0, 0, 0.9)).isEqualTo(20);
+        assertThat(policy.nextThreads(20, 2, 0, 0, 0)).isEqualTo(10);
+    }
+
+    @DisplayName("threads : une file qui attend trop ajoute des threads")
+    @Test
+    @Order(2)
+    public void queueLatencyAddsThreads() {
+        assertThat(policy.nextThreads(2, 2, 50, MILLISECONDS.toNanos(20), 0)).isEqualTo(3);
+    }
+
+    @DisplayName("throughput : divisé si l'attente dépasse la cible, doublé sur un arriéré sans attente")
+    @Test
+    @Order(3)
+    public void throughputFollowsQueueLatency() {
+        assertThat(policy.nextThroughput(8, 4, 100, MILLISECONDS.toNanos(20))).isEqualTo(4);
+        assertThat(policy.nextThroughput(8, 4, 100, MILLISECONDS.toNanos(1))).isEqualTo(16);
+        assertThat(policy.nextThroughput(8, 4, 2, MILLISECONDS.toNanos(1))).isEqualTo(8);
+        assertThat(policy.nextThroughput(64, 4, 100, 0)).isEqualTo(64);
+    }
+
+    @DisplayName("des tâches bloquantes font grandir le pool")
+    @Test
+    @Order(4)
+    public void blockingTasksGrowThePool() throws Exception {
+        final SelfTuningDispatcher dispatcher = (SelfTuningDispatcher) system.dispatchers().lookup("self-tuning-dispatcher");
+        final Executor executor = dispatcher;
+
+        final CompletableFuture<?>[] tasks = new CompletableFuture<?>[200];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, executor);
+        }
+        CompletableFuture.allOf(tasks).get(10, TimeUnit.SECONDS);
+
+        assertThat(dispatcher.gauges().threads()).isGreaterThan(2);
+        assertThat(dispatcher.gauges().adjustments()).isPositive();
+    }
+}
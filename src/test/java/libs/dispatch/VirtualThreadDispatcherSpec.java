@@ -0,0 +1,63 @@
+package libs.dispatch;
+
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
+import org.junit.jupiter.api.*;
+import scala.concurrent.ExecutionContextExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("VirtualThreadDispatcher")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class VirtualThreadDispatcherSpec {
+
+    private static ActorSystem system;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("VirtualThreadDispatcher");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("des tâches bloquantes dépassent les 20 threads du dedicated-dispatcher")
+    @Test
+    @Order(1)
+    public void runsManyBlockingTasksConcurrently() throws Exception {
+        final ExecutionContextExecutor dispatcher = system.dispatchers().lookup("virtual-thread-dispatcher");
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+
+        final CompletableFuture<?>[] tasks = new CompletableFuture<?>[100];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = CompletableFuture.runAsync(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            }, dispatcher);
+        }
+        CompletableFuture.allOf(tasks).get(5, TimeUnit.SECONDS);
+
+        assertThat(maxRunning.get()).isGreaterThan(20);
+    }
+
+    @DisplayName("les threads virtuels ne sont détectés que si la JVM permet d'en créer")
+    @Test
+    @Order(2)
+    public void detectsUsableVirtualThreads() {
+        assertThat(VirtualThreadExecutorConfigurator.virtualThreadsAvailable())
+                .isEqualTo(Runtime.version().feature() >= 21);
+    }
+}
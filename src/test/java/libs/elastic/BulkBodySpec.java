@@ -0,0 +1,51 @@
+package libs.elastic;
+
+import akka.util.ByteString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BulkBody")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BulkBodySpec {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @DisplayName("produit un corps NDJSON avec une ligne d'action par document")
+    @Test
+    @Order(1)
+    public void ndjsonBody() {
+        final BulkBody bulkBody = BulkBody.index(mapper, "vikings", "vikings");
+
+        final ByteString body = BulkBody.concat(List.of(document("Ragnar", "Kattegat"), document("Lagertha", "Hedeby"))
+                .map(bulkBody::entry));
+
+        assertThat(body.utf8String()).isEqualTo(
+                "{\"index\":{\"_index\":\"vikings\",\"_type\":\"vikings\"}}\n" +
+                "{\"name\":\"Ragnar\",\"place\":\"Kattegat\"}\n" +
+                "{\"index\":{\"_index\":\"vikings\",\"_type\":\"vikings\"}}\n" +
+                "{\"name\":\"Lagertha\",\"place\":\"Hedeby\"}\n");
+    }
+
+    @DisplayName("encode les caractères non ASCII en UTF-8")
+    @Test
+    @Order(2)
+    public void utf8() {
+        final BulkBody bulkBody = BulkBody.index(mapper, "vikings", "vikings");
+
+        final ByteString entry = bulkBody.entry(document("Æthelwulf", "Wessex"));
+
+        assertThat(entry.drop(bulkBody.actionLine().size()).utf8String())
+                .isEqualTo("{\"name\":\"Æthelwulf\",\"place\":\"Wessex\"}\n");
+    }
+
+    private ObjectNode document(String name, String place) {
+        final ObjectNode node = mapper.createObjectNode();
+        node.put("name", name);
+        node.put("place", place);
+        return node;
+    }
+}
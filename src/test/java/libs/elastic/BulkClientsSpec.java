@@ -0,0 +1,127 @@
+package libs.elastic;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Compression;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.testkit.javadsl.TestKit;
+import akka.util.ByteString;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import io.vavr.collection.List;
+import libs.Json;
+import org.junit.jupiter.api.*;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BulkClients")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BulkClientsSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("BulkClients");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("gzip compresse le corps par tranches sans en changer le contenu")
+    @Test
+    @Order(1)
+    public void gzipRoundTrip() throws Exception {
+        final ByteString body = ndjson(5_000);
+
+        final java.util.List<ByteString> chunks = BodyCompression.GZIP.encode(body, 16 * 1024, 6)
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+        final ByteString compressed = BulkBody.concat(chunks);
+        final ByteString restored = Source.single(compressed)
+                .via(Compression.gunzip(64 * 1024))
+                .runFold(ByteString.empty(), ByteString::concat, mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(restored).isEqualTo(body);
+        assertThat(chunks.size()).isGreaterThan(1);
+        assertThat(compressed.size() * 5).isLessThan(body.size());
+    }
+
+    @DisplayName("chaque serveur a ses propres réglages, compression comprise")
+    @Test
+    @Order(2)
+    public void perServerSettings() throws Exception {
+        final java.util.Map<String, String> encodings = new ConcurrentHashMap<>();
+        final java.util.Map<String, ByteString> bodies = new ConcurrentHashMap<>();
+        final HttpServer gzip = server("gzip", encodings, bodies);
+        final HttpServer plain = server("plain", encodings, bodies);
+        final String gzipServer = "localhost:" + gzip.getAddress().getPort();
+        final String plainServer = "localhost:" + plain.getAddress().getPort();
+
+        final Config config = ConfigFactory.parseString(
+                "per-server { \"" + plainServer + "\" { compression = \"none\", max-connections = 2 } }")
+                .withFallback(ConfigFactory.load().getConfig("vikings.http"));
+
+        final ByteString body = ndjson(100);
+        try (BulkClients clients = BulkClients.fromConfig(List.of(gzipServer, plainServer), config, mat)) {
+            assertThat(clients.settings(plainServer).maxConnections()).isEqualTo(2);
+            assertThat(clients.settings(gzipServer).compression()).isEqualTo(BodyCompression.GZIP);
+
+            assertThat(clients.post(gzipServer, body).toCompletableFuture().get(5, TimeUnit.SECONDS).status()).isEqualTo(200);
+            assertThat(clients.post(plainServer, body).toCompletableFuture().get(5, TimeUnit.SECONDS).status()).isEqualTo(200);
+        } finally {
+            gzip.stop(0);
+            plain.stop(0);
+        }
+
+        assertThat(encodings.get("gzip")).isEqualTo("gzip");
+        assertThat(encodings.get("plain")).isEqualTo("identity");
+        assertThat(bodies.get("gzip")).isEqualTo(body);
+        assertThat(bodies.get("plain")).isEqualTo(body);
+    }
+
+    private static ByteString ndjson(int documents) {
+        final BulkBody bulkBody = BulkBody.index("vikings", "vikings");
+        return BulkBody.concat(List.range(0, documents).map(i -> {
+            final ObjectNode document = Json.newObject();
+            document.put("name", "Viking " + i);
+            document.put("place", "Place " + i % 13);
+            return bulkBody.entry(document);
+        }));
+    }
+
+    private static HttpServer server(String name, java.util.Map<String, String> encodings, java.util.Map<String, ByteString> bodies) throws Exception {
+        final byte[] response = "{\"errors\":false,\"items\":[]}".getBytes(StandardCharsets.UTF_8);
+        final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/_bulk", exchange -> {
+            final String encoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+            encodings.put(name, encoding == null ? "identity" : encoding);
+            try (InputStream body = "gzip".equals(encoding)
+                    ? new GZIPInputStream(exchange.getRequestBody())
+                    : exchange.getRequestBody()) {
+                bodies.put(name, ByteString.fromArray(body.readAllBytes()));
+            }
+            exchange.sendResponseHeaders(200, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,135 @@
+package libs.elastic;
+
+import akka.actor.ActorSystem;
+import akka.testkit.javadsl.TestKit;
+import akka.util.ByteString;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("BulkRetry")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class BulkRetrySpec {
+
+    private static ActorSystem system;
+
+    private final List<ByteString> entries = List.of("a", "b", "c").map(ByteString::fromString);
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("BulkRetry");
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("ne renvoie que les items refusés en 429")
+    @Test
+    @Order(1)
+    public void retriesOnlyRejectedItems() throws Exception {
+        final BulkRetry retry = retry(3);
+        final java.util.List<String> bodies = new java.util.concurrent.CopyOnWriteArrayList<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        final BulkOutcome outcome = retry.send(entries, body -> {
+            bodies.add(body.utf8String());
+            return respond(calls.getAndIncrement() == 0
+                    ? items(201, 429, 201)
+                    : items(201));
+        }).toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(bodies).containsExactly("abc", "b");
+        assertThat(outcome.indexed()).isEqualTo(3);
+        assertThat(outcome.rejected()).isEmpty();
+        assertThat(outcome.retries()).isEqualTo(1);
+    }
+
+    @DisplayName("un refus définitif part en dead letter sans rejeu")
+    @Test
+    @Order(2)
+    public void permanentFailureIsRejected() throws Exception {
+        final BulkOutcome outcome = retry(3).send(entries, body -> respond(items(201, 400, 201)))
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(outcome.indexed()).isEqualTo(2);
+        assertThat(outcome.rejected().map(r -> r.entry().utf8String())).containsExactly("b");
+        assertThat(outcome.retries()).isZero();
+    }
+
+    @DisplayName("le budget de rejeu est borné et le débit est réduit")
+    @Test
+    @Order(3)
+    public void retryBudgetIsBounded() throws Exception {
+        final BulkRetry retry = retry(2);
+        final AtomicInteger calls = new AtomicInteger();
+
+        final BulkOutcome outcome = retry.send(entries, body -> {
+            calls.incrementAndGet();
+            return respond(new BulkResponse(429, ByteString.empty()));
+        }).toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(outcome.rejected()).hasSize(3);
+        assertThat(retry.throttle()).isGreaterThan(Duration.ZERO);
+    }
+
+    @DisplayName("un corps 200 illisible est rejoué puis part en dead letter, sans faire échouer l'envoi")
+    @Test
+    @Order(4)
+    public void unreadableBodyIsRetried() throws Exception {
+        for (String body : List.of("", "<html>Bad gateway</html>", "{\"errors\":tr")) {
+            final AtomicInteger calls = new AtomicInteger();
+
+            final BulkOutcome outcome = retry(1).send(entries, b -> {
+                calls.incrementAndGet();
+                return respond(new BulkResponse(200, ByteString.fromString(body)));
+            }).toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+            assertThat(calls.get()).isEqualTo(2);
+            assertThat(outcome.indexed()).isZero();
+            assertThat(outcome.rejected()).hasSize(3);
+            assertThat(outcome.rejected().head().reason()).startsWith("retry budget exhausted");
+        }
+    }
+
+    @DisplayName("un item sans action est rejeté comme un item manquant")
+    @Test
+    @Order(5)
+    public void emptyItemIsRejected() throws Exception {
+        final BulkResponse response = new BulkResponse(200, ByteString.fromString(
+                "{\"errors\":true,\"items\":[{\"index\":{\"status\":201}},{},{\"index\":{\"status\":201}}]}"));
+
+        final BulkOutcome outcome = retry(3).send(entries, body -> respond(response))
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(outcome.indexed()).isEqualTo(2);
+        assertThat(outcome.rejected().map(r -> r.entry().utf8String())).containsExactly("b");
+        assertThat(outcome.rejected().head().reason()).isEqualTo("missing item in response");
+    }
+
+    private BulkRetry retry(int maxRetries) {
+        return new BulkRetry(maxRetries, Duration.ofMillis(10), Duration.ofMillis(50), 0.2, system.scheduler(), system.dispatcher());
+    }
+
+    private static CompletionStage<BulkResponse> respond(BulkResponse response) {
+        return CompletableFuture.completedFuture(response);
+    }
+
+    private static BulkResponse items(int... statuses) {
+        final String items = List.ofAll(statuses)
+                .map(status -> "{\"index\":{\"status\":" + status + (status >= 300 ? ",\"error\":{\"type\":\"x\"}" : "") + "}}")
+                .mkString(",");
+        final boolean errors = List.ofAll(statuses).exists(status -> status >= 300);
+        return new BulkResponse(200, ByteString.fromString("{\"errors\":" + errors + ",\"items\":[" + items + "]}"));
+    }
+}
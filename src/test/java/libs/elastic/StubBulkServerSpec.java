@@ -0,0 +1,109 @@
+package libs.elastic;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.testkit.javadsl.TestKit;
+import akka.util.ByteString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.typesafe.config.ConfigFactory;
+import io.vavr.collection.List;
+import libs.Json;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StubBulkServer")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class StubBulkServerSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("StubBulkServer");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("compte les documents reçus, compressés ou non")
+    @Test
+    @Order(1)
+    public void countsDocuments() throws Exception {
+        try (StubBulkServer server = start(StubBulkServer.Settings.acceptAll())) {
+            final BulkResponse plain = post(server, "none", ndjson(10));
+            final BulkResponse gzip = post(server, "gzip", ndjson(25));
+
+            assertThat(plain.status()).isEqualTo(200);
+            assertThat(Json.parse(plain.body()).path("items").size()).isEqualTo(10);
+            assertThat(Json.parse(gzip.body()).path("items").size()).isEqualTo(25);
+            assertThat(server.requests()).isEqualTo(2);
+            assertThat(server.documents()).isEqualTo(35);
+        }
+    }
+
+    @DisplayName("les échecs d'items sont reproductibles à graine égale")
+    @Test
+    @Order(2)
+    public void deterministicItemFailures() throws Exception {
+        final StubBulkServer.Settings settings = StubBulkServer.Settings.acceptAll().withItemFailures(0.2, 429).withSeed(7);
+        try (StubBulkServer first = start(settings); StubBulkServer second = start(settings)) {
+            final JsonNode a = Json.parse(post(first, "none", ndjson(200)).body());
+            final JsonNode b = Json.parse(post(second, "none", ndjson(200)).body());
+
+            assertThat(a.path("errors").asBoolean()).isTrue();
+            assertThat(a).isEqualTo(b);
+            assertThat(first.failedItems()).isBetween(20L, 60L);
+            assertThat(first.documents() + first.failedItems()).isEqualTo(200);
+        }
+    }
+
+    @DisplayName("injecte latence et refus en 429 sans bloquer de thread")
+    @Test
+    @Order(3)
+    public void latencyAndRejections() throws Exception {
+        final StubBulkServer.Settings settings = StubBulkServer.Settings.acceptAll()
+                .withLatency(StubBulkServer.Latency.fixed(Duration.ofMillis(200)))
+                .withRejectRate(1);
+        try (StubBulkServer server = start(settings)) {
+            final long start = System.nanoTime();
+            final BulkResponse response = post(server, "none", ndjson(5));
+
+            assertThat(response.status()).isEqualTo(429);
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+            assertThat(server.rejectedRequests()).isEqualTo(1);
+            assertThat(server.documents()).isZero();
+        }
+    }
+
+    private static StubBulkServer start(StubBulkServer.Settings settings) {
+        return StubBulkServer.start(settings, system.scheduler(), system.dispatcher());
+    }
+
+    private static BulkResponse post(StubBulkServer server, String compression, ByteString body) throws Exception {
+        try (BulkClients clients = BulkClients.fromConfig(List.of(server.address()),
+                ConfigFactory.parseString("default.compression = " + compression)
+                        .withFallback(ConfigFactory.load().getConfig("vikings.http")),
+                mat)) {
+            return clients.post(server.address(), body).toCompletableFuture().get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static ByteString ndjson(int documents) {
+        final BulkBody bulkBody = BulkBody.index("vikings", "vikings");
+        return BulkBody.concat(List.range(0, documents).map(i -> {
+            final ObjectNode document = Json.newObject();
+            document.put("name", "Viking " + i);
+            return bulkBody.entry(document);
+        }));
+    }
+}
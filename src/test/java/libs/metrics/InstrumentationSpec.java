@@ -0,0 +1,134 @@
+package libs.metrics;
+
+import akka.actor.ActorSystem;
+import akka.japi.Pair;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.testkit.javadsl.TestKit;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Instrumentation")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class InstrumentationSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("Instrumentation");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("une sonde compte les éléments sans les modifier")
+    @Test
+    @Order(1)
+    public void probeCountsElements() throws Exception {
+        final HdrMetricsRegistry registry = new HdrMetricsRegistry();
+        final Instrumentation instrumentation = new Instrumentation(registry, 4);
+
+        final java.util.List<Integer> result = Source.range(1, 100)
+                .via(instrumentation.probe("probe"))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(result).hasSize(100).startsWith(1, 2, 3);
+        final StageSnapshot snapshot = registry.snapshot().head();
+        assertThat(snapshot.name()).isEqualTo("probe");
+        assertThat(snapshot.elements()).isEqualTo(100);
+    }
+
+    @DisplayName("timed mesure la latence du flow encadré et conserve sa valeur matérialisée")
+    @Test
+    @Order(2)
+    public void timedRecordsLatency() throws Exception {
+        final HdrMetricsRegistry registry = new HdrMetricsRegistry();
+        final Instrumentation instrumentation = new Instrumentation(registry, 1);
+
+        final Flow<Integer, Integer, String> slow = Flow.<Integer>create()
+                .<Integer>mapAsync(1, i -> CompletableFuture.supplyAsync(
+                        () -> i, CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS)))
+                .mapMaterializedValue(__ -> "slow");
+
+        final Pair<String, CompletionStage<java.util.List<Integer>>> run = Source.range(1, 20)
+                .viaMat(instrumentation.timed("slow", slow), Keep.right())
+                .toMat(Sink.seq(), Keep.both())
+                .run(mat);
+
+        assertThat(run.second().toCompletableFuture().get(3, TimeUnit.SECONDS)).hasSize(20);
+        assertThat(run.first()).isEqualTo("slow");
+        final StageSnapshot snapshot = registry.snapshot().head();
+        assertThat(snapshot.elements()).isEqualTo(20);
+        assertThat(snapshot.latency().getTotalCount()).isEqualTo(20);
+        assertThat(snapshot.latency().getValueAtPercentile(50)).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+    }
+
+    @DisplayName("un buffer mesuré se remplit quand l'aval est lent")
+    @Test
+    @Order(3)
+    public void bufferRecordsFill() throws Exception {
+        final HdrMetricsRegistry registry = new HdrMetricsRegistry();
+        final Instrumentation instrumentation = new Instrumentation(registry, 1);
+
+        Source.range(1, 50)
+                .via(instrumentation.buffer("buffer", 8))
+                .<Integer>mapAsync(1, i -> CompletableFuture.supplyAsync(
+                        () -> i, CompletableFuture.delayedExecutor(1, TimeUnit.MILLISECONDS)))
+                .runWith(Sink.ignore(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        final StageSnapshot snapshot = registry.snapshot().head();
+        assertThat(snapshot.elements()).isEqualTo(50);
+        assertThat(snapshot.bufferCapacity()).isEqualTo(8);
+        assertThat(snapshot.bufferFill().getMaxValue()).isEqualTo(8);
+    }
+
+    @DisplayName("un buffer adaptatif se réduit quand l'aval est durablement plus lent")
+    @Test
+    @Order(4)
+    public void adaptiveBufferShrinksWhenConsumerBound() throws Exception {
+        final HdrMetricsRegistry registry = new HdrMetricsRegistry();
+        final Instrumentation instrumentation = new Instrumentation(registry, 1);
+
+        Source.range(1, 100)
+                .via(instrumentation.adaptiveBuffer("adaptive", new BufferSizing(2, 64, 64, Duration.ofMillis(50))))
+                .<Integer>mapAsync(1, i -> CompletableFuture.supplyAsync(
+                        () -> i, CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS)))
+                .runWith(Sink.ignore(), mat)
+                .toCompletableFuture().get(5, TimeUnit.SECONDS);
+
+        final StageSnapshot snapshot = registry.snapshot().head();
+        assertThat(snapshot.elements()).isEqualTo(100);
+        assertThat(snapshot.bufferCapacity()).isLessThan(64);
+    }
+
+    @DisplayName("la capacité double quand le buffer est tour à tour plein et vide, et reste dans les bornes")
+    @Test
+    @Order(5)
+    public void sizingRules() {
+        final BufferSizing sizing = new BufferSizing(4, 32, 8, Duration.ofSeconds(1));
+
+        assertThat(sizing.next(8, 0.2, 0.2, 8)).isEqualTo(16);
+        assertThat(sizing.next(32, 0.2, 0.2, 32)).isEqualTo(32);
+        assertThat(sizing.next(16, 0.9, 0, 16)).isEqualTo(8);
+        assertThat(sizing.next(32, 0, 0.5, 1)).isEqualTo(16);
+        assertThat(sizing.next(8, 0, 0.5, 1)).isEqualTo(4);
+        assertThat(sizing.next(16, 0.1, 0, 16)).isEqualTo(16);
+    }
+}
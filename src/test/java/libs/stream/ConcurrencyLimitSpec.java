@@ -0,0 +1,45 @@
+package libs.stream;
+
+import org.junit.jupiter.api.*;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ConcurrencyLimit")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ConcurrencyLimitSpec {
+
+    @DisplayName("AIMD : +1 à saturation, réduction multiplicative sur refus")
+    @Test
+    @Order(1)
+    public void aimd() {
+        final ConcurrencyLimit limit = ConcurrencyLimit.aimd(10, 1, 20, 0.5).get();
+
+        limit.onSample(MILLISECONDS.toNanos(10), 10, false);
+        assertThat(limit.limit()).isEqualTo(11);
+
+        limit.onSample(MILLISECONDS.toNanos(10), 3, false);
+        assertThat(limit.limit()).isEqualTo(11);
+
+        limit.onSample(MILLISECONDS.toNanos(10), 11, true);
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    @DisplayName("Vegas : monte sans file d'attente, descend quand la latence s'envole")
+    @Test
+    @Order(2)
+    public void vegas() {
+        final ConcurrencyLimit limit = ConcurrencyLimit.vegas(10, 1, 100).get();
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(MILLISECONDS.toNanos(10), limit.limit(), false);
+        }
+        final int grown = limit.limit();
+        assertThat(grown).isGreaterThan(10);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(MILLISECONDS.toNanos(100), limit.limit(), false);
+        }
+        assertThat(limit.limit()).isLessThan(grown);
+    }
+}
@@ -0,0 +1,157 @@
+package libs.stream;
+
+import akka.actor.ActorSystem;
+import akka.japi.Pair;
+import akka.stream.ActorMaterializer;
+import akka.stream.Attributes;
+import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.stream.testkit.TestPublisher;
+import akka.stream.testkit.TestSubscriber;
+import akka.stream.testkit.javadsl.TestSink;
+import akka.testkit.javadsl.TestKit;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ConflateZip")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ConflateZipSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("ConflateZip");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("latest n'associe que la dernière valeur rapide à chaque élément lent")
+    @Test
+    @Order(1)
+    public void latestKeepsLastFastValue() {
+        final TestPublisher.Probe<Integer> fast = TestPublisher.probe(0, system);
+        final TestPublisher.Probe<String> slow = TestPublisher.probe(0, system);
+
+        final Pair<ConflateStats, TestSubscriber.Probe<Pair<Integer, String>>> run =
+                run(fast, ConflateZip.latest(Source.fromPublisher(slow)));
+        run.second().request(2);
+
+        fast.sendNext(1).sendNext(2).sendNext(3);
+        slow.sendNext("a");
+        run.second().expectNext(Pair.create(3, "a"));
+
+        fast.sendNext(4);
+        slow.sendNext("b");
+        run.second().expectNext(Pair.create(4, "b"));
+
+        assertThat(run.first().received()).isEqualTo(4);
+        assertThat(run.first().dropped()).isEqualTo(2);
+        assertThat(run.first().emitted()).isEqualTo(2);
+    }
+
+    @DisplayName("aggregate agrège tout ce qui est arrivé depuis la dernière émission")
+    @Test
+    @Order(2)
+    public void aggregateSinceLast() {
+        final TestPublisher.Probe<Integer> fast = TestPublisher.probe(0, system);
+        final TestPublisher.Probe<String> slow = TestPublisher.probe(0, system);
+
+        final Pair<ConflateStats, TestSubscriber.Probe<Pair<Integer, String>>> run =
+                run(fast, ConflateZip.<Integer, Integer, String>aggregate(Source.fromPublisher(slow), __ -> 1, (count, __) -> count + 1));
+        run.second().request(2);
+
+        fast.sendNext(1).sendNext(2).sendNext(3).sendNext(4).sendNext(5);
+        slow.sendNext("a");
+        run.second().expectNext(Pair.create(5, "a"));
+
+        fast.sendNext(6);
+        slow.sendNext("b");
+        run.second().expectNext(Pair.create(1, "b"));
+
+        assertThat(run.first().aggregated()).isEqualTo(4);
+        assertThat(run.first().dropped()).isZero();
+    }
+
+    @DisplayName("boundedLag garde les maxLag éléments les plus récents, dans l'ordre")
+    @Test
+    @Order(3)
+    public void boundedLagKeepsMostRecent() {
+        final TestPublisher.Probe<Integer> fast = TestPublisher.probe(0, system);
+        final TestPublisher.Probe<String> slow = TestPublisher.probe(0, system);
+
+        final Pair<ConflateStats, TestSubscriber.Probe<Pair<List<Integer>, String>>> run =
+                run(fast, ConflateZip.boundedLag(Source.fromPublisher(slow), 3));
+        run.second().request(1);
+
+        fast.sendNext(1).sendNext(2).sendNext(3).sendNext(4).sendNext(5);
+        slow.sendNext("a");
+        run.second().expectNext(Pair.create(List.of(3, 4, 5), "a"));
+
+        assertThat(run.first().dropped()).isEqualTo(2);
+    }
+
+    @DisplayName("un élément lent attend un élément rapide et est remplacé par un plus récent")
+    @Test
+    @Order(4)
+    public void slowElementWaitsForFast() {
+        final TestPublisher.Probe<Integer> fast = TestPublisher.probe(0, system);
+        final TestPublisher.Probe<String> slow = TestPublisher.probe(0, system);
+
+        final Pair<ConflateStats, TestSubscriber.Probe<Pair<Integer, String>>> run =
+                run(fast, ConflateZip.latest(Source.fromPublisher(slow)));
+        run.second().request(1);
+
+        slow.sendNext("a").sendNext("b");
+        run.second().expectNoMessage(scala.concurrent.duration.Duration.create(100, TimeUnit.MILLISECONDS));
+        fast.sendNext(1);
+        run.second().expectNext(Pair.create(1, "b"));
+
+        assertThat(run.first().slowDropped()).isEqualTo(1);
+
+        slow.sendComplete();
+        run.second().expectComplete();
+    }
+
+    @DisplayName("derrière une frontière async à buffer réduit, chaque élément rapide reçu est émis ou compté")
+    @Test
+    @Order(5)
+    public void countsAcrossAsyncBoundary() throws Exception {
+        final Flow<Integer, Pair<Integer, Long>, ConflateStats> zip =
+                ConflateZip.<Integer, Integer, Long>aggregate(Source.range(1, 50).map(Long::valueOf), __ -> 1, (count, __) -> count + 1);
+
+        final Pair<ConflateStats, CompletionStage<java.util.List<Pair<Integer, Long>>>> run = Source.range(1, 10_000)
+                .async()
+                .viaMat(zip.addAttributes(Attributes.inputBuffer(1, 1)), Keep.right())
+                .toMat(Sink.seq(), Keep.both())
+                .run(mat);
+
+        final List<Pair<Integer, Long>> pairs = List.ofAll(run.second().toCompletableFuture().get(5, TimeUnit.SECONDS));
+        final ConflateStats stats = run.first();
+
+        assertThat(pairs.size()).isEqualTo(stats.emitted());
+        assertThat(pairs.map(Pair::first).sum().longValue() + stats.dropped()).isEqualTo(stats.received());
+        assertThat(pairs.map(Pair::first).sum().longValue() - pairs.size()).isEqualTo(stats.aggregated());
+    }
+
+    private static <A, S> Pair<ConflateStats, TestSubscriber.Probe<Pair<A, S>>> run(TestPublisher.Probe<Integer> fast,
+                                                                                   Flow<Integer, Pair<A, S>, ConflateStats> zip) {
+        return Source.fromPublisher(fast)
+                .viaMat(zip, Keep.right())
+                .toMat(TestSink.probe(system), Keep.both())
+                .run(mat);
+    }
+}
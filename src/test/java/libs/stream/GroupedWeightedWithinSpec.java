@@ -0,0 +1,73 @@
+package libs.stream;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.testkit.javadsl.TestKit;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.Duration.ofMillis;
+import static java.time.Duration.ofSeconds;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("GroupedWeightedWithin")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class GroupedWeightedWithinSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("GroupedWeightedWithin");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("ferme un lot sur le nombre d'éléments")
+    @Test
+    @Order(1)
+    public void closesOnCount() throws Exception {
+        final java.util.List<List<Integer>> batches = Source.range(1, 7)
+                .via(GroupedWeightedWithin.<Integer>create(3, Long.MAX_VALUE, i -> 1, ofSeconds(10)))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(batches).containsExactly(List.of(1, 2, 3), List.of(4, 5, 6), List.of(7));
+    }
+
+    @DisplayName("ferme un lot sur le poids, un élément trop lourd part seul")
+    @Test
+    @Order(2)
+    public void closesOnWeight() throws Exception {
+        final java.util.List<List<String>> batches = Source.from(java.util.Arrays.asList("aa", "bb", "cc", "dddddd", "e"))
+                .via(GroupedWeightedWithin.<String>create(100, 5, String::length, ofSeconds(10)))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(batches).containsExactly(List.of("aa", "bb"), List.of("cc"), List.of("dddddd"), List.of("e"));
+    }
+
+    @DisplayName("ferme un lot après le délai d'attente")
+    @Test
+    @Order(3)
+    public void closesOnLinger() throws Exception {
+        final java.util.List<List<Integer>> batches = Source.single(1)
+                .concat(Source.single(2).initialDelay(ofMillis(500)))
+                .via(GroupedWeightedWithin.<Integer>create(100, Long.MAX_VALUE, i -> 1, Duration.ofMillis(100)))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(batches).containsExactly(List.of(1), List.of(2));
+    }
+}
@@ -0,0 +1,133 @@
+package libs.stream;
+
+import akka.actor.ActorSystem;
+import akka.japi.Pair;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Keep;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.stream.testkit.TestPublisher;
+import akka.stream.testkit.TestSubscriber;
+import akka.stream.testkit.javadsl.TestSink;
+import akka.testkit.javadsl.TestKit;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("LeastOutstandingRouter")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class LeastOutstandingRouterSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("LeastOutstandingRouter");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("un serveur lent reçoit moins de trafic")
+    @Test
+    @Order(1)
+    public void slowServerGetsLessTraffic() throws Exception {
+        final List<String> servers = List.of("fast", "slow");
+
+        final Pair<RoutingGauges, CompletionStage<java.util.List<String>>> run = Source.range(1, 60)
+                .viaMat(LeastOutstandingRouter.create(servers, 2, (server, i) ->
+                        CompletableFuture.supplyAsync(
+                                () -> server,
+                                CompletableFuture.delayedExecutor(server.equals("slow") ? 200 : 10, TimeUnit.MILLISECONDS))),
+                        Keep.right())
+                .toMat(Sink.seq(), Keep.both())
+                .run(mat);
+
+        final List<String> handledBy = List.ofAll(run.second().toCompletableFuture().get(10, TimeUnit.SECONDS));
+
+        assertThat(handledBy.size()).isEqualTo(60);
+        assertThat(handledBy.count("fast"::equals)).isGreaterThan(handledBy.count("slow"::equals) * 3);
+        assertThat(run.first().inFlight("fast")).isZero();
+        assertThat(run.first().limit("fast")).isEqualTo(2);
+        assertThat(run.first().latency("slow")).isGreaterThan(run.first().latency("fast"));
+    }
+
+    @DisplayName("l'échec d'un appel fait échouer le stream")
+    @Test
+    @Order(2)
+    public void failureFailsStream() {
+        final CompletionStage<java.util.List<Integer>> result = Source.range(1, 10)
+                .via(LeastOutstandingRouter.<Integer, Integer>create(List.of("a", "b"), 1, (server, i) -> {
+                    final CompletableFuture<Integer> future = new CompletableFuture<>();
+                    if (i == 5) {
+                        future.completeExceptionally(new IllegalStateException("boom"));
+                    } else {
+                        future.complete(i);
+                    }
+                    return future;
+                }))
+                .runWith(Sink.seq(), mat);
+
+        Assertions.assertThrows(Exception.class, () -> result.toCompletableFuture().get(3, TimeUnit.SECONDS));
+    }
+
+    @DisplayName("un élément reçu après une baisse de limite attend qu'un serveur se libère")
+    @Test
+    @Order(3)
+    public void elementWaitsWhenLimitShrinksBeforePush() throws Exception {
+        final LinkedBlockingQueue<CompletableFuture<Integer>> calls = new LinkedBlockingQueue<>();
+        final TestPublisher.Probe<Integer> upstream = TestPublisher.probe(0, system);
+
+        // Une réponse négative est un refus : AIMD divise la limite par deux
+        final TestSubscriber.Probe<Integer> downstream = Source.fromPublisher(upstream)
+                .via(LeastOutstandingRouter.<Integer, Integer>create(List.of("a"),
+                        ConcurrencyLimit.aimd(24, 1, 24, 0.5),
+                        LeastOutstandingRouter.DEFAULT_EWMA_ALPHA,
+                        result -> result < 0,
+                        (server, i) -> {
+                            final CompletableFuture<Integer> future = new CompletableFuture<>();
+                            calls.add(future);
+                            return future;
+                        }))
+                .runWith(TestSink.probe(system), mat);
+        downstream.request(100);
+
+        // 23 appels en vol, la demande du 24e est déjà partie
+        for (int i = 1; i <= 23; i++) {
+            upstream.sendNext(i);
+        }
+        final java.util.List<CompletableFuture<Integer>> inFlight = new java.util.ArrayList<>();
+        for (int i = 1; i <= 23; i++) {
+            inFlight.add(calls.poll(3, TimeUnit.SECONDS));
+        }
+
+        // Le refus fait passer la limite de 24 à 12 alors que 22 appels restent en vol
+        inFlight.get(0).complete(-1);
+        downstream.expectNext(-1);
+        upstream.sendNext(24);
+        assertThat(calls.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+        // Les réponses suivantes libèrent des places : l'élément en attente part, le stream continue
+        for (int i = 1; i < 23; i++) {
+            inFlight.get(i).complete(i);
+        }
+        final CompletableFuture<Integer> last = calls.poll(3, TimeUnit.SECONDS);
+        assertThat(last).isNotNull();
+        last.complete(24);
+        upstream.sendComplete();
+
+        assertThat(downstream.expectNextN(23).size()).isEqualTo(23);
+        downstream.expectComplete();
+    }
+}
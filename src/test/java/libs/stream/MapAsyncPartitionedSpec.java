@@ -0,0 +1,102 @@
+package libs.stream;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.testkit.javadsl.TestKit;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("MapAsyncPartitioned")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class MapAsyncPartitionedSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("MapAsyncPartitioned");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("l'ordre est conservé par clé, une clé lente est doublée par les autres")
+    @Test
+    @Order(1)
+    public void keepsOrderWithinKey() throws Exception {
+        // Clé = i % 3, la clé 0 est lente et ses délais décroissent pour forcer un désordre interne
+        final List<Integer> result = List.ofAll(Source.range(0, 29)
+                .via(MapAsyncPartitioned.create(8, i -> i % 3, i -> CompletableFuture.supplyAsync(
+                        () -> i,
+                        CompletableFuture.delayedExecutor(i % 3 == 0 ? 60 - i : 1, TimeUnit.MILLISECONDS))))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(10, TimeUnit.SECONDS));
+
+        assertThat(result.sorted()).isEqualTo(List.range(0, 30));
+        for (int key = 0; key < 3; key++) {
+            final int k = key;
+            assertThat(result.filter(i -> i % 3 == k)).isEqualTo(result.filter(i -> i % 3 == k).sorted());
+        }
+        assertThat(result.indexOf(1)).isLessThan(result.indexOf(0));
+    }
+
+    @DisplayName("jamais plus de parallelism appels en cours")
+    @Test
+    @Order(2)
+    public void boundsConcurrency() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+
+        final java.util.List<Integer> result = Source.range(1, 50)
+                .via(MapAsyncPartitioned.create(4, i -> i % 7, i -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    return CompletableFuture.supplyAsync(() -> {
+                        running.decrementAndGet();
+                        return i;
+                    }, CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS));
+                }))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        assertThat(result).hasSize(50);
+        assertThat(peak.get()).isBetween(2, 4);
+    }
+
+    @DisplayName("un résultat null est ignoré, un échec fait échouer le stream")
+    @Test
+    @Order(3)
+    public void nullIsDroppedAndFailureFails() throws Exception {
+        final java.util.List<Integer> evens = Source.range(1, 10)
+                .via(MapAsyncPartitioned.create(3, i -> i % 2, i -> CompletableFuture.completedFuture(i % 2 == 0 ? i : null)))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+        assertThat(evens).containsExactly(2, 4, 6, 8, 10);
+
+        final CompletionStage<java.util.List<Integer>> failed = Source.range(1, 10)
+                .via(MapAsyncPartitioned.<Integer, Integer, Integer>create(2, i -> i % 2, i -> {
+                    final CompletableFuture<Integer> future = new CompletableFuture<>();
+                    if (i == 5) {
+                        future.completeExceptionally(new IllegalStateException("boom"));
+                    } else {
+                        future.complete(i);
+                    }
+                    return future;
+                }))
+                .runWith(Sink.seq(), mat);
+        Assertions.assertThrows(Exception.class, () -> failed.toCompletableFuture().get(3, TimeUnit.SECONDS));
+    }
+}
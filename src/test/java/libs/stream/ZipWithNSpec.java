@@ -0,0 +1,94 @@
+package libs.stream;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.testkit.javadsl.TestKit;
+import io.vavr.collection.List;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ZipWithN et BoundedScan")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+public class ZipWithNSpec {
+
+    private static ActorSystem system;
+    private static ActorMaterializer mat;
+
+    @BeforeAll
+    public static void setUp() {
+        system = ActorSystem.create("ZipWithN");
+        mat = ActorMaterializer.create(system);
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        TestKit.shutdownActorSystem(system);
+        system = null;
+    }
+
+    @DisplayName("combine les éléments de même rang et s'arrête avec l'entrée la plus courte")
+    @Test
+    @Order(1)
+    public void zipsByIndex() throws Exception {
+        final java.util.List<String> result = ZipWithN.<Integer, String>create(
+                tuple -> tuple.mkString("+"),
+                List.of(Source.range(1, 3), Source.range(10, 20), Source.repeat(100)))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(result).containsExactly("1+10+100", "2+11+100", "3+12+100");
+    }
+
+    @DisplayName("la vue passée au combineur est la même instance d'un élément à l'autre")
+    @Test
+    @Order(2)
+    public void reusesView() throws Exception {
+        final java.util.List<Integer> identities = ZipWithN.<Integer, Integer>create(
+                System::identityHashCode,
+                List.of(Source.range(1, 5), Source.range(1, 5)))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(List.ofAll(identities).distinct().size()).isEqualTo(1);
+    }
+
+    @DisplayName("window applique la fonction aux derniers éléments, du plus ancien au plus récent")
+    @Test
+    @Order(3)
+    public void slidingWindow() throws Exception {
+        final java.util.List<String> result = Source.range(1, 5)
+                .via(BoundedScan.<Integer, String>window(3, view -> view.mkString(",")))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(result).containsExactly("1", "1,2", "1,2,3", "2,3,4", "3,4,5");
+    }
+
+    @DisplayName("joining produit le même texte que scan, tronqué aux derniers caractères")
+    @Test
+    @Order(4)
+    public void joiningIsCapped() throws Exception {
+        final List<String> elements = List.range(0, 500).map(i -> "e" + i);
+
+        final java.util.List<String> capped = Source.from(elements)
+                .via(BoundedScan.joining(" - ", 50))
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+        final java.util.List<String> unbounded = Source.from(elements)
+                .scan("", (acc, elt) -> acc + " - " + elt)
+                .drop(1)
+                .runWith(Sink.seq(), mat)
+                .toCompletableFuture().get(3, TimeUnit.SECONDS);
+
+        assertThat(capped).hasSize(500);
+        for (int i = 0; i < capped.size(); i++) {
+            final String full = unbounded.get(i);
+            assertThat(capped.get(i)).isEqualTo(full.substring(Math.max(0, full.length() - 50)));
+        }
+    }
+}